@@ -0,0 +1,71 @@
+package rk.prod.jackson.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import rk.prod.jackson.JacksonClassAttributeCache;
+import rk.prod.jackson.NestedBeanPropertyFilter;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ColdStartBenchmark measures building the first filter of a root entity with empty
+ * metadata caches, eager (the whole reachable graph is introspected) against lazy
+ * (only the classes along the filter paths are)
+ * <p>
+ * firstFilter selects depth levels of the Node graph, which has two classes on every
+ * path, firstShopFilter selects the name of a Shop, one of the eight classes reachable
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 50)
+@Measurement(iterations = 50)
+@Fork(3)
+@State(Scope.Thread)
+public class ColdStartBenchmark {
+
+    @Param({"false", "true"})
+    public boolean lazy;
+
+    @Param({"4"})
+    public int depth;
+
+    private String[] paths;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        JacksonClassAttributeCache.setLazyMetadata(lazy);
+        paths = Graph.selectedPaths(depth, 1);
+    }
+
+    @Setup(Level.Invocation)
+    public void invalidate() {
+        JacksonClassAttributeCache.invalidateAll();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        JacksonClassAttributeCache.setLazyMetadata(false);
+    }
+
+    @Benchmark
+    public Object firstFilter() {
+        return NestedBeanPropertyFilter.filterOutAllExcept(Node.class, paths);
+    }
+
+    @Benchmark
+    public Object firstShopFilter() {
+        return NestedBeanPropertyFilter.filterOutAllExcept(Shop.class, "name");
+    }
+
+}
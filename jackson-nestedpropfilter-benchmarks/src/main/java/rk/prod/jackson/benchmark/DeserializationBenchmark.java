@@ -0,0 +1,75 @@
+package rk.prod.jackson.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import rk.prod.jackson.NestedPropertyDeserializationModule;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * DeserializationBenchmark binds a wide inbound document fully against binding only
+ * the selected properties through NestedPropertyDeserializationModule, add -prof gc
+ * for the allocation per document
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class DeserializationBenchmark {
+
+    @Param({"1"})
+    public int documentMegabytes;
+
+    @Param({"10"})
+    public int collectionSize;
+
+    @Param({"0.25", "1.0"})
+    public double fraction;
+
+    private byte[] document;
+
+    private ObjectReader full;
+
+    private ObjectReader pruned;
+
+    @Setup
+    public void setup() throws IOException {
+        ObjectMapper plainMapper = new ObjectMapper();
+        plainMapper.setAnnotationIntrospector(new Graph.NoFilterIntrospector());
+
+        int childBytes = plainMapper.writeValueAsBytes(Graph.build(1, 0, collectionSize)).length;
+        document = plainMapper.writeValueAsBytes(
+                Graph.build(2, (int) ((documentMegabytes * 1024L * 1024L) / childBytes), collectionSize));
+
+        full = plainMapper.readerFor(Node.class);
+        pruned = new ObjectMapper()
+                .registerModule(new NestedPropertyDeserializationModule(Node.class,
+                        Graph.selectedPaths(2, Graph.selectedFields(fraction))))
+                .readerFor(Node.class);
+    }
+
+    @Benchmark
+    public Object bindAll() throws IOException {
+        return full.readValue(document);
+    }
+
+    @Benchmark
+    public Object bindSelected() throws IOException {
+        return pruned.readValue(document);
+    }
+
+}
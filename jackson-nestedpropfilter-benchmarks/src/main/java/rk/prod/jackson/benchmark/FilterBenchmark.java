@@ -0,0 +1,179 @@
+package rk.prod.jackson.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import rk.prod.jackson.JacksonClassAttributeCache;
+import rk.prod.jackson.NestedBeanPropertyFilter;
+import rk.prod.jackson.NestedPropertyFilterModule;
+import rk.prod.jackson.NestedPropertyFilterProvider;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * FilterBenchmark serializes the same graph with the same selected properties
+ * unfiltered, through @JsonView, a flat SimpleBeanPropertyFilter and the nested filters
+ * <p>
+ * Throughput and SampleTime (latency percentiles) are measured, add -prof gc for
+ * the allocation rate per operation, e.g.
+ * <p>
+ * java -jar target/benchmarks.jar FilterBenchmark -prof gc -p depth=3,5 -p fraction=0.25,1.0
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class FilterBenchmark {
+
+    @Param({"2", "4"})
+    public int depth;
+
+    @Param({"2", "4"})
+    public int fanOut;
+
+    @Param({"10"})
+    public int collectionSize;
+
+    // fraction of the eight scalar fields per class that is selected
+    @Param({"0.25", "1.0"})
+    public double fraction;
+
+    private Node root;
+
+    private String[] paths;
+
+    private String fieldSelection;
+
+    private ObjectMapper filterMapper;
+
+    private ObjectWriter unfiltered;
+
+    private ObjectWriter jsonView;
+
+    private ObjectWriter flatFilter;
+
+    private ObjectWriter nestedFilter;
+
+    private ObjectWriter nestedFilterByPath;
+
+    private ObjectWriter prunedModule;
+
+    private final Graph.CountingOutputStream out = new Graph.CountingOutputStream();
+
+    @Setup
+    public void setup() {
+        root = Graph.build(depth, fanOut, collectionSize);
+        int fields = Graph.selectedFields(fraction);
+        paths = Graph.selectedPaths(depth, fields);
+        fieldSelection = Graph.selectedFieldSelection(depth, fields);
+
+        ObjectMapper plainMapper = new ObjectMapper();
+        plainMapper.setAnnotationIntrospector(new Graph.NoFilterIntrospector());
+        unfiltered = plainMapper.writer();
+        jsonView = plainMapper.writerWithView(Views.byCount(fields));
+
+        filterMapper = new ObjectMapper();
+        String[] flatNames = Graph.selectedNames(fields).toArray(new String[fields + 2]);
+        flatNames[fields] = "children";
+        flatNames[fields + 1] = "items";
+        flatFilter = filterMapper.writer(new SimpleFilterProvider()
+                .addFilter(Graph.FILTER_ID, SimpleBeanPropertyFilter.filterOutAllExcept(flatNames)));
+        nestedFilter = filterMapper.writer(new NestedPropertyFilterProvider()
+                .addFilter(Graph.FILTER_ID, NestedBeanPropertyFilter.filterOutAllExcept(Node.class, paths)));
+        nestedFilterByPath = filterMapper.writer(new NestedPropertyFilterProvider()
+                .addFilter(Graph.FILTER_ID, NestedBeanPropertyFilter.filterOutAllExceptByPath(Node.class, paths)));
+
+        ObjectMapper moduleMapper = new ObjectMapper();
+        moduleMapper.setAnnotationIntrospector(new Graph.NoFilterIntrospector());
+        moduleMapper.registerModule(new NestedPropertyFilterModule(Node.class, paths));
+        prunedModule = moduleMapper.writer();
+    }
+
+    private long write(ObjectWriter writer) throws IOException {
+        writer.writeValue(out, root);
+        return out.reset();
+    }
+
+    @Benchmark
+    public long unfiltered() throws IOException {
+        return write(unfiltered);
+    }
+
+    @Benchmark
+    public long jsonView() throws IOException {
+        return write(jsonView);
+    }
+
+    @Benchmark
+    public long flatSimpleBeanPropertyFilter() throws IOException {
+        return write(flatFilter);
+    }
+
+    /*
+     * filter built once, the steady state of a filter kept per endpoint
+     */
+    @Benchmark
+    public long nestedWarm() throws IOException {
+        return write(nestedFilter);
+    }
+
+    /*
+     * same paths, the empty children of the last level are not written as the
+     * class level filter (and @JsonView) does
+     */
+    @Benchmark
+    public long nestedByPathWarm() throws IOException {
+        return write(nestedFilterByPath);
+    }
+
+    /*
+     * filter looked up per request from the String... properties, the spec is
+     * canonicalized every time, the filter comes from the cache
+     */
+    @Benchmark
+    public long nestedPerRequest() throws IOException {
+        return write(filterMapper.writer(new NestedPropertyFilterProvider()
+                .addFilter(Graph.FILTER_ID, NestedBeanPropertyFilter.filterOutAllExcept(Node.class, paths))));
+    }
+
+    /*
+     * filter looked up per request by the raw field selection query
+     */
+    @Benchmark
+    public long nestedFieldSelection() throws IOException {
+        return write(filterMapper.writer(new NestedPropertyFilterProvider()
+                .addFilter(Graph.FILTER_ID, NestedBeanPropertyFilter.filterOutAllExceptFields(Node.class, fieldSelection))));
+    }
+
+    /*
+     * filter built per request after dropping all cached metadata, the first request
+     * for a class (the Jackson serializers themselves stay cached)
+     */
+    @Benchmark
+    public long nestedCold() throws IOException {
+        JacksonClassAttributeCache.invalidateAll();
+        return write(filterMapper.writer(new NestedPropertyFilterProvider()
+                .addFilter(Graph.FILTER_ID, NestedBeanPropertyFilter.filterOutAllExcept(Node.class, paths))));
+    }
+
+    @Benchmark
+    public long prunedModule() throws IOException {
+        return write(prunedModule);
+    }
+
+}
@@ -0,0 +1,128 @@
+package rk.prod.jackson.benchmark;
+
+import com.fasterxml.jackson.databind.introspect.Annotated;
+import com.fasterxml.jackson.databind.introspect.JacksonAnnotationIntrospector;
+
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Graph builds the benchmark object graphs and the matching property paths
+ * <p>
+ * depth is the number of Node levels (1 is the root only), every Node has
+ * fanOut children down to the last level and collectionSize leaves
+ */
+public final class Graph {
+
+    public static final String FILTER_ID = "nestedPropertyFilter";
+
+    public static final int FIELDS = 8;
+
+    private Graph() {
+    }
+
+    public static Node build(int depth, int fanOut, int collectionSize) {
+        return build(depth, fanOut, collectionSize, new int[1]);
+    }
+
+    private static Node build(int depth, int fanOut, int collectionSize, int[] ids) {
+        Node node = new Node(ids[0]++);
+        for (int i = 0; i < collectionSize; i++) {
+            node.getItems().add(new Leaf(ids[0]++));
+        }
+        if (depth > 1) {
+            for (int i = 0; i < fanOut; i++) {
+                node.getChildren().add(build(depth - 1, fanOut, collectionSize, ids));
+            }
+        }
+        return node;
+    }
+
+    /*
+     * number of scalar fields per class for the selected fraction, at least one
+     */
+    public static int selectedFields(double fraction) {
+        return Math.max(1, Math.min(FIELDS, (int) Math.round(FIELDS * fraction)));
+    }
+
+    public static List<String> selectedNames(int fields) {
+        List<String> names = new ArrayList<>();
+        for (int i = 0; i < fields; i++) {
+            names.add("f" + i);
+        }
+        return names;
+    }
+
+    /*
+     * the first fields of every Node and Leaf down to depth, i.e., depth 2, one field gives
+     * f0, items.f0, children.f0, children.items.f0
+     */
+    public static String[] selectedPaths(int depth, int fields) {
+        List<String> paths = new ArrayList<>();
+        String prefix = "";
+        for (int level = 0; level < depth; level++) {
+            for (String name : selectedNames(fields)) {
+                paths.add(prefix + name);
+                paths.add(prefix + "items." + name);
+            }
+            prefix += "children.";
+        }
+        return paths.toArray(new String[paths.size()]);
+    }
+
+    /*
+     * selectedPaths as a field selection query, i.e., depth 2, one field gives
+     * f0,items(f0),children(f0,items(f0))
+     */
+    public static String selectedFieldSelection(int depth, int fields) {
+        StringBuilder names = new StringBuilder();
+        for (String name : selectedNames(fields)) {
+            names.append(names.length() == 0 ? "" : ",").append(name);
+        }
+        String level = names + ",items(" + names + ")";
+        String query = level;
+        for (int i = 1; i < depth; i++) {
+            query = level + ",children(" + query + ")";
+        }
+        return query;
+    }
+
+    /*
+     * plain Jackson, @JsonFilter is ignored so no filter provider is needed
+     */
+    public static class NoFilterIntrospector extends JacksonAnnotationIntrospector {
+
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        public Object findFilterId(Annotated a) {
+            return null;
+        }
+    }
+
+    /*
+     * discards the output, only counts bytes so the JIT can not drop the serialization
+     */
+    public static class CountingOutputStream extends OutputStream {
+
+        private long count;
+
+        @Override
+        public void write(int b) {
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            count += len;
+        }
+
+        public long reset() {
+            long result = count;
+            count = 0;
+            return result;
+        }
+    }
+
+}
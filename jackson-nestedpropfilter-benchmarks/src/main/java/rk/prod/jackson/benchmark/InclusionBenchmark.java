@@ -0,0 +1,94 @@
+package rk.prod.jackson.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import rk.prod.jackson.NestedBeanPropertyFilter;
+import rk.prod.jackson.NestedPropertyFilterProvider;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * InclusionBenchmark writes a sparse graph, half of the fields null or zero and the last level
+ * without children, with plain paths and with the same paths carrying inclusion rules
+ * (children?NON_EMPTY, items?NON_EMPTY, ?NON_DEFAULT on every field), the returned byte count
+ * is the response size, i.e.,
+ * <p>
+ * java -jar target/benchmarks.jar InclusionBenchmark -p depth=3,5
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class InclusionBenchmark {
+
+    @Param({"4"})
+    public int depth;
+
+    @Param({"3"})
+    public int fanOut;
+
+    @Param({"0", "2"})
+    public int collectionSize;
+
+    private Node root;
+
+    private ObjectWriter plain;
+
+    private ObjectWriter ruled;
+
+    private final Graph.CountingOutputStream out = new Graph.CountingOutputStream();
+
+    @Setup
+    public void setup() {
+        root = Graph.build(depth, fanOut, collectionSize);
+        clearOptional(root);
+        String[] paths = Graph.selectedPaths(depth, Graph.FIELDS);
+        String[] ruledPaths = new String[paths.length];
+        for (int i = 0; i < paths.length; i++) {
+            ruledPaths[i] = paths[i].replace("children.", "children?NON_EMPTY.").replace("items.", "items?NON_EMPTY.")
+                    + "?NON_DEFAULT";
+        }
+        ObjectMapper objectMapper = new ObjectMapper();
+        plain = objectMapper.writer(new NestedPropertyFilterProvider()
+                .addFilter(Graph.FILTER_ID, NestedBeanPropertyFilter.filterOutAllExcept(Node.class, paths)));
+        ruled = objectMapper.writer(new NestedPropertyFilterProvider()
+                .addFilter(Graph.FILTER_ID, NestedBeanPropertyFilter.filterOutAllExcept(Node.class, ruledPaths)));
+    }
+
+    private static void clearOptional(Node node) {
+        node.clearOptional();
+        for (Leaf leaf : node.getItems()) {
+            leaf.clearOptional();
+        }
+        for (Node child : node.getChildren()) {
+            clearOptional(child);
+        }
+    }
+
+    @Benchmark
+    public long plain() throws IOException {
+        plain.writeValue(out, root);
+        return out.reset();
+    }
+
+    @Benchmark
+    public long inclusion() throws IOException {
+        ruled.writeValue(out, root);
+        return out.reset();
+    }
+
+}
@@ -0,0 +1,86 @@
+package rk.prod.jackson.benchmark;
+
+import com.fasterxml.jackson.annotation.JsonFilter;
+import com.fasterxml.jackson.annotation.JsonView;
+
+/**
+ * Leaf is the collection element of the benchmark graph, eight scalar fields
+ */
+@JsonFilter(Graph.FILTER_ID)
+public class Leaf {
+
+    private String f0;
+    private int f1;
+    private String f2;
+    private long f3;
+    private String f4;
+    private int f5;
+    private String f6;
+    private double f7;
+
+    // for binding, the properties are set through the fields behind the getters
+    private Leaf() {
+    }
+
+    public Leaf(int id) {
+        this.f0 = "leaf-" + id;
+        this.f1 = id;
+        this.f2 = "value-" + (id * 31);
+        this.f3 = id * 1000003L;
+        this.f4 = "description of leaf " + id;
+        this.f5 = id % 7;
+        this.f6 = "status-" + (id % 3);
+        this.f7 = id / 3.0;
+    }
+
+    /*
+     * drops the optional values, half of the fields are null or zero then, see InclusionBenchmark
+     */
+    void clearOptional() {
+        f2 = null;
+        f3 = 0;
+        f4 = null;
+        f7 = 0;
+    }
+
+    @JsonView(Views.F1.class)
+    public String getF0() {
+        return f0;
+    }
+
+    @JsonView(Views.F2.class)
+    public int getF1() {
+        return f1;
+    }
+
+    @JsonView(Views.F3.class)
+    public String getF2() {
+        return f2;
+    }
+
+    @JsonView(Views.F4.class)
+    public long getF3() {
+        return f3;
+    }
+
+    @JsonView(Views.F5.class)
+    public String getF4() {
+        return f4;
+    }
+
+    @JsonView(Views.F6.class)
+    public int getF5() {
+        return f5;
+    }
+
+    @JsonView(Views.F7.class)
+    public String getF6() {
+        return f6;
+    }
+
+    @JsonView(Views.F8.class)
+    public double getF7() {
+        return f7;
+    }
+
+}
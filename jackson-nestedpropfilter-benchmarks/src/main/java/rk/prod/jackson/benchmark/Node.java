@@ -0,0 +1,104 @@
+package rk.prod.jackson.benchmark;
+
+import com.fasterxml.jackson.annotation.JsonFilter;
+import com.fasterxml.jackson.annotation.JsonView;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Node is the nested entity of the benchmark graph, eight scalar fields,
+ * fan-out child nodes and a collection of leaves
+ */
+@JsonFilter(Graph.FILTER_ID)
+public class Node {
+
+    private String f0;
+    private int f1;
+    private String f2;
+    private long f3;
+    private String f4;
+    private int f5;
+    private String f6;
+    private double f7;
+
+    private List<Node> children = new ArrayList<>();
+
+    private List<Leaf> items = new ArrayList<>();
+
+    // for binding, the properties are set through the fields behind the getters
+    private Node() {
+    }
+
+    public Node(int id) {
+        this.f0 = "node-" + id;
+        this.f1 = id;
+        this.f2 = "value-" + (id * 17);
+        this.f3 = id * 7919L;
+        this.f4 = "description of node " + id;
+        this.f5 = id % 5;
+        this.f6 = "type-" + (id % 4);
+        this.f7 = id / 7.0;
+    }
+
+    /*
+     * drops the optional values, half of the fields are null or zero then, see InclusionBenchmark
+     */
+    void clearOptional() {
+        f2 = null;
+        f3 = 0;
+        f4 = null;
+        f7 = 0;
+    }
+
+    @JsonView(Views.F1.class)
+    public String getF0() {
+        return f0;
+    }
+
+    @JsonView(Views.F2.class)
+    public int getF1() {
+        return f1;
+    }
+
+    @JsonView(Views.F3.class)
+    public String getF2() {
+        return f2;
+    }
+
+    @JsonView(Views.F4.class)
+    public long getF3() {
+        return f3;
+    }
+
+    @JsonView(Views.F5.class)
+    public String getF4() {
+        return f4;
+    }
+
+    @JsonView(Views.F6.class)
+    public int getF5() {
+        return f5;
+    }
+
+    @JsonView(Views.F7.class)
+    public String getF6() {
+        return f6;
+    }
+
+    @JsonView(Views.F8.class)
+    public double getF7() {
+        return f7;
+    }
+
+    @JsonView(Views.F1.class)
+    public List<Node> getChildren() {
+        return children;
+    }
+
+    @JsonView(Views.F1.class)
+    public List<Leaf> getItems() {
+        return items;
+    }
+
+}
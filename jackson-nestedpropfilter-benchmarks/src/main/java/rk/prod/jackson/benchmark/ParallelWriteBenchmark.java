@@ -0,0 +1,95 @@
+package rk.prod.jackson.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import rk.prod.jackson.FilteredWriterRegistry;
+import rk.prod.jackson.NestedBeanPropertyFilter;
+import rk.prod.jackson.NestedPropertyFilterProvider;
+import rk.prod.jackson.ParallelFilteredWriter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ParallelWriteBenchmark writes a large root list of filtered nodes single threaded and in
+ * parallel chunks (ParallelFilteredWriter) with 1 to n workers, i.e.,
+ * <p>
+ * java -jar target/benchmarks.jar ParallelWriteBenchmark -p workers=1,2,4,8
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ParallelWriteBenchmark {
+
+    @Param({"100000"})
+    public int size;
+
+    @Param({"1", "4"})
+    public int workers;
+
+    @Param({"1024"})
+    public int chunkSize;
+
+    private List<Node> roots;
+
+    private ObjectWriter sequential;
+
+    private ForkJoinPool pool;
+
+    private ParallelFilteredWriter parallel;
+
+    private final Graph.CountingOutputStream out = new Graph.CountingOutputStream();
+
+    @Setup
+    public void setup() {
+        roots = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            roots.add(Graph.build(1, 0, 2));
+        }
+        String[] paths = Graph.selectedPaths(1, Graph.FIELDS / 2);
+        ObjectMapper objectMapper = new ObjectMapper();
+        sequential = objectMapper.writer(new NestedPropertyFilterProvider()
+                .addFilter(Graph.FILTER_ID, NestedBeanPropertyFilter.filterOutAllExcept(Node.class, paths)));
+        pool = new ForkJoinPool(workers);
+        ObjectWriter nodeWriter = new FilteredWriterRegistry(objectMapper, Graph.FILTER_ID)
+                .register("nodes", Node.class, paths)
+                .writer("nodes");
+        parallel = new ParallelFilteredWriter(nodeWriter, pool, chunkSize);
+    }
+
+    @TearDown
+    public void tearDown() {
+        pool.shutdown();
+    }
+
+    @Benchmark
+    public long sequential() throws IOException {
+        sequential.writeValue(out, roots);
+        return out.reset();
+    }
+
+    @Benchmark
+    public long parallel() throws IOException {
+        parallel.writeValues(out, roots);
+        return out.reset();
+    }
+
+}
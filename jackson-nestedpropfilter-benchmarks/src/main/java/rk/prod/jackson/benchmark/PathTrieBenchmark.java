@@ -0,0 +1,78 @@
+package rk.prod.jackson.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import rk.prod.jackson.NestedBeanPropertyFilter;
+import rk.prod.jackson.NestedPropertyFilterProvider;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * PathTrieBenchmark compares the class level filter with the path aware filter
+ * (filterOutAllExceptByPath) on deep graphs, the path aware filter carries the trie
+ * node of the nested object down the call (PathTrieCursor), so its cost per field
+ * should not grow with the depth, i.e., stay a constant factor of the class level one
+ * <p>
+ * java -jar target/benchmarks.jar PathTrieBenchmark -p depth=3,4,5,6,7,8
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class PathTrieBenchmark {
+
+    @Param({"3", "4", "5", "6", "7", "8"})
+    public int depth;
+
+    @Param({"2"})
+    public int fanOut;
+
+    @Param({"2"})
+    public int collectionSize;
+
+    private Node root;
+
+    private ObjectWriter classLevel;
+
+    private ObjectWriter byPath;
+
+    private final Graph.CountingOutputStream out = new Graph.CountingOutputStream();
+
+    @Setup
+    public void setup() {
+        root = Graph.build(depth, fanOut, collectionSize);
+        String[] paths = Graph.selectedPaths(depth, Graph.FIELDS / 2);
+        ObjectMapper mapper = new ObjectMapper();
+        classLevel = mapper.writer(new NestedPropertyFilterProvider()
+                .addFilter(Graph.FILTER_ID, NestedBeanPropertyFilter.filterOutAllExcept(Node.class, paths)));
+        byPath = mapper.writer(new NestedPropertyFilterProvider()
+                .addFilter(Graph.FILTER_ID, NestedBeanPropertyFilter.filterOutAllExceptByPath(Node.class, paths)));
+    }
+
+    @Benchmark
+    public long classLevel() throws IOException {
+        classLevel.writeValue(out, root);
+        return out.reset();
+    }
+
+    @Benchmark
+    public long byPath() throws IOException {
+        byPath.writeValue(out, root);
+        return out.reset();
+    }
+
+}
@@ -0,0 +1,102 @@
+package rk.prod.jackson.benchmark;
+
+import com.fasterxml.jackson.annotation.JsonFilter;
+
+import java.util.List;
+
+/**
+ * Shop is a wide model for ColdStartBenchmark, eight classes reachable from the root,
+ * only the metadata is built so the classes have getters only
+ */
+@JsonFilter(Graph.FILTER_ID)
+public class Shop {
+
+    public String getName() {
+        return null;
+    }
+
+    public List<Customer> getCustomers() {
+        return null;
+    }
+
+    public List<Product> getProducts() {
+        return null;
+    }
+
+    @JsonFilter(Graph.FILTER_ID)
+    public static class Customer {
+
+        public String getName() {
+            return null;
+        }
+
+        public Address getAddress() {
+            return null;
+        }
+
+        public List<Invoice> getInvoices() {
+            return null;
+        }
+    }
+
+    @JsonFilter(Graph.FILTER_ID)
+    public static class Invoice {
+
+        public String getNumber() {
+            return null;
+        }
+
+        public List<Line> getLines() {
+            return null;
+        }
+    }
+
+    @JsonFilter(Graph.FILTER_ID)
+    public static class Line {
+
+        public int getQuantity() {
+            return 0;
+        }
+
+        public Product getProduct() {
+            return null;
+        }
+    }
+
+    @JsonFilter(Graph.FILTER_ID)
+    public static class Product {
+
+        public String getName() {
+            return null;
+        }
+
+        public Supplier getSupplier() {
+            return null;
+        }
+    }
+
+    @JsonFilter(Graph.FILTER_ID)
+    public static class Supplier {
+
+        public String getName() {
+            return null;
+        }
+
+        public Address getAddress() {
+            return null;
+        }
+    }
+
+    @JsonFilter(Graph.FILTER_ID)
+    public static class Address {
+
+        public String getStreet() {
+            return null;
+        }
+
+        public String getCity() {
+            return null;
+        }
+    }
+
+}
@@ -0,0 +1,92 @@
+package rk.prod.jackson.benchmark;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import rk.prod.jackson.FilterSpec;
+import rk.prod.jackson.NestedBeanPropertyFilter;
+import rk.prod.jackson.NestedPropertyFilterProvider;
+import rk.prod.jackson.NestedPropertyTokenFilter;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * StreamFilterBenchmark filters already serialized JSON, streaming through
+ * NestedPropertyTokenFilter against binding to POJOs, filtering and writing
+ * <p>
+ * the document is one root Node with as many child nodes (of collectionSize
+ * leaves each) as it takes to reach documentMegabytes, the streamed output is a
+ * little shorter as the token filter drops the empty children arrays of the child nodes
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@State(Scope.Thread)
+public class StreamFilterBenchmark {
+
+    @Param({"1", "100"})
+    public int documentMegabytes;
+
+    @Param({"10"})
+    public int collectionSize;
+
+    @Param({"0.25"})
+    public double fraction;
+
+    private byte[] document;
+
+    private FilterSpec spec;
+
+    private final JsonFactory factory = new JsonFactory();
+
+    private ObjectMapper mapper;
+
+    private ObjectWriter nestedFilter;
+
+    private final Graph.CountingOutputStream out = new Graph.CountingOutputStream();
+
+    @Setup
+    public void setup() throws IOException {
+        ObjectMapper plainMapper = new ObjectMapper();
+        plainMapper.setAnnotationIntrospector(new Graph.NoFilterIntrospector());
+
+        int childBytes = plainMapper.writeValueAsBytes(Graph.build(1, 0, collectionSize)).length;
+        Node root = Graph.build(2, (int) ((documentMegabytes * 1024L * 1024L) / childBytes), collectionSize);
+        document = plainMapper.writeValueAsBytes(root);
+
+        String[] paths = Graph.selectedPaths(2, Graph.selectedFields(fraction));
+        spec = FilterSpec.of(paths);
+        mapper = new ObjectMapper();
+        nestedFilter = mapper.writer(new NestedPropertyFilterProvider()
+                .addFilter(Graph.FILTER_ID, NestedBeanPropertyFilter.filterOutAllExcept(Node.class, spec)));
+    }
+
+    @Benchmark
+    public long streamFilter() throws IOException {
+        NestedPropertyTokenFilter.filter(factory, new ByteArrayInputStream(document), out, spec);
+        return out.reset();
+    }
+
+    @Benchmark
+    public long bindFilterWrite() throws IOException {
+        Node root = mapper.readValue(document, Node.class);
+        nestedFilter.writeValue(out, root);
+        return out.reset();
+    }
+
+}
@@ -0,0 +1,44 @@
+package rk.prod.jackson.benchmark;
+
+/**
+ * Views selects the first n of the eight scalar fields of Node and Leaf,
+ * every view includes the previous one, so @JsonView(Views.byCount(n)) picks
+ * the same properties as the nested filter of the same fraction
+ */
+public final class Views {
+
+    public interface F1 {
+    }
+
+    public interface F2 extends F1 {
+    }
+
+    public interface F3 extends F2 {
+    }
+
+    public interface F4 extends F3 {
+    }
+
+    public interface F5 extends F4 {
+    }
+
+    public interface F6 extends F5 {
+    }
+
+    public interface F7 extends F6 {
+    }
+
+    public interface F8 extends F7 {
+    }
+
+    private static final Class<?>[] VIEWS = {F1.class, F2.class, F3.class, F4.class,
+            F5.class, F6.class, F7.class, F8.class};
+
+    private Views() {
+    }
+
+    public static Class<?> byCount(int fields) {
+        return VIEWS[fields - 1];
+    }
+
+}
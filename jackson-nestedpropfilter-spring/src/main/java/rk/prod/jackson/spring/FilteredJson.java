@@ -0,0 +1,28 @@
+package rk.prod.jackson.spring;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * FilteredJson names the FilteredWriterRegistry writer of a @ResponseBody handler method, i.e.,
+ * <p>
+ * &#64;FilteredJson("orderSummary")
+ * &#64;RequestMapping("/orders/{id}")
+ * public @ResponseBody Order order(@PathVariable String id)
+ * <p>
+ * on a controller class it applies to all of its handler methods
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.METHOD, ElementType.TYPE})
+public @interface FilteredJson {
+
+    /*
+     * name of the writer in the registry
+     */
+    String value();
+
+}
@@ -0,0 +1,41 @@
+package rk.prod.jackson.spring;
+
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+/**
+ * FilteredResponseBodyAdvice tags the body of @FilteredJson handler methods with the writer
+ * name, the FilteredWriterHttpMessageConverter then writes it with the writer of its FilterRegistry
+ * <p>
+ * Register it as a bean (it is a @ControllerAdvice) along with the converter
+ */
+@ControllerAdvice
+public class FilteredResponseBodyAdvice implements ResponseBodyAdvice<Object> {
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return FilteredWriterHttpMessageConverter.class.isAssignableFrom(converterType) && filteredJson(returnType) != null;
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+                                  Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                  ServerHttpRequest request, ServerHttpResponse response) {
+        if (body == null || body instanceof FilteredValue) {
+            return body;
+        }
+        return new FilteredValue(filteredJson(returnType).value(), body);
+    }
+
+    // the method annotation wins over the one of the controller
+    private static FilteredJson filteredJson(MethodParameter returnType) {
+        FilteredJson filteredJson = returnType.getMethodAnnotation(FilteredJson.class);
+        return filteredJson != null ? filteredJson : returnType.getContainingClass().getAnnotation(FilteredJson.class);
+    }
+
+}
@@ -0,0 +1,31 @@
+package rk.prod.jackson.spring;
+
+/**
+ * FilteredValue is a response body along with the name of the registry writer it is
+ * written with, see FilteredResponseBodyAdvice
+ */
+public final class FilteredValue {
+
+    private final String writerName;
+
+    private final Object value;
+
+    public FilteredValue(String writerName, Object value) {
+        this.writerName = writerName;
+        this.value = value;
+    }
+
+    public String getWriterName() {
+        return writerName;
+    }
+
+    public Object getValue() {
+        return value;
+    }
+
+    @Override
+    public String toString() {
+        return "FilteredValue [writerName=" + writerName + ", value=" + value + "]";
+    }
+
+}
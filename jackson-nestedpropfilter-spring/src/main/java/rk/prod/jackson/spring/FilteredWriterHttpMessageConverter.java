@@ -0,0 +1,56 @@
+package rk.prod.jackson.spring;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import rk.prod.jackson.FilterRegistry;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+
+/**
+ * FilteredWriterHttpMessageConverter is a MappingJackson2HttpMessageConverter that writes a
+ * FilteredValue straight with its cached registry writer, no MappingJacksonValue or
+ * FilterProvider is created per request, anything else is written as usual
+ * <p>
+ * Use it in place of the default MappingJackson2HttpMessageConverter, i.e., in
+ * WebMvcConfigurer.configureMessageConverters, and use the ObjectMapper of the registry,
+ * a FilteredWriterRegistry or a ReloadableFilterRegistry, the writer is looked up per request
+ * so reloaded filters apply to the next response
+ */
+public class FilteredWriterHttpMessageConverter extends MappingJackson2HttpMessageConverter {
+
+    private final FilterRegistry registry;
+
+    public FilteredWriterHttpMessageConverter(ObjectMapper objectMapper, FilterRegistry registry) {
+        super(objectMapper);
+        this.registry = registry;
+    }
+
+    public FilterRegistry getRegistry() {
+        return registry;
+    }
+
+    @Override
+    protected void writeInternal(Object object, Type type, HttpOutputMessage outputMessage)
+            throws IOException, HttpMessageNotWritableException {
+        if (!(object instanceof FilteredValue)) {
+            super.writeInternal(object, type, outputMessage);
+            return;
+        }
+        FilteredValue filteredValue = (FilteredValue) object;
+        JsonEncoding encoding = getJsonEncoding(outputMessage.getHeaders().getContentType());
+        JsonGenerator generator = getObjectMapper().getFactory().createGenerator(outputMessage.getBody(), encoding);
+        try {
+            registry.writer(filteredValue.getWriterName()).writeValue(generator, filteredValue.getValue());
+            generator.flush();
+        } catch (JsonProcessingException e) {
+            throw new HttpMessageNotWritableException("Could not write JSON: " + e.getOriginalMessage(), e);
+        }
+    }
+
+}
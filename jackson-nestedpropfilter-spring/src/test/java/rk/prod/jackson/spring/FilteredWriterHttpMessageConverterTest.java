@@ -0,0 +1,104 @@
+package rk.prod.jackson.spring;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.Assert;
+import org.junit.Test;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import rk.prod.jackson.FilteredWriterRegistry;
+import rk.prod.jackson.NestedBeanPropertyFilter;
+import rk.prod.jackson.ReloadableFilterRegistry;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+
+public class FilteredWriterHttpMessageConverterTest {
+
+    private ObjectMapper objectMapper = new ObjectMapper();
+
+    private FilteredWriterRegistry registry = new FilteredWriterRegistry(objectMapper)
+            .register("summary", Order.class, NestedBeanPropertyFilter.filterOutAllExceptByPath(Order.class, "id", "parent.id"));
+
+    private FilteredWriterHttpMessageConverter converter = new FilteredWriterHttpMessageConverter(objectMapper, registry);
+
+    private Order order = new Order("2", "customer", new Order("1", "customer", null));
+
+    static class Controller {
+
+        @FilteredJson("summary")
+        public Order summary() {
+            return null;
+        }
+
+        public Order plain() {
+            return null;
+        }
+    }
+
+    private static final class BufferedOutputMessage implements HttpOutputMessage {
+
+        private final HttpHeaders headers = new HttpHeaders();
+
+        private final ByteArrayOutputStream body = new ByteArrayOutputStream();
+
+        @Override
+        public OutputStream getBody() throws IOException {
+            return body;
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return headers;
+        }
+
+        String bodyAsString() {
+            return new String(body.toByteArray(), StandardCharsets.UTF_8);
+        }
+    }
+
+    @Test
+    public void writeTest() throws Exception {
+        BufferedOutputMessage outputMessage = new BufferedOutputMessage();
+        converter.write(new FilteredValue("summary", order), MediaType.APPLICATION_JSON, outputMessage);
+
+        Assert.assertEquals("{\"id\":\"2\",\"parent\":{\"id\":\"1\"}}", outputMessage.bodyAsString());
+    }
+
+    @Test
+    public void writeReloadedTest() throws Exception {
+        ReloadableFilterRegistry reloadable = new ReloadableFilterRegistry(objectMapper);
+        FilteredWriterHttpMessageConverter reloadableConverter = new FilteredWriterHttpMessageConverter(objectMapper, reloadable);
+
+        reloadable.update(Collections.singletonMap("summary", Order.class.getName() + ":id"));
+        BufferedOutputMessage outputMessage = new BufferedOutputMessage();
+        reloadableConverter.write(new FilteredValue("summary", order), MediaType.APPLICATION_JSON, outputMessage);
+        Assert.assertEquals("{\"id\":\"2\"}", outputMessage.bodyAsString());
+
+        // the next response is written with the reloaded filter
+        reloadable.update(Collections.singletonMap("summary", Order.class.getName() + ":id,customer"));
+        outputMessage = new BufferedOutputMessage();
+        reloadableConverter.write(new FilteredValue("summary", order), MediaType.APPLICATION_JSON, outputMessage);
+        Assert.assertEquals("{\"id\":\"2\",\"customer\":\"customer\"}", outputMessage.bodyAsString());
+    }
+
+    @Test
+    public void adviceTest() throws Exception {
+        FilteredResponseBodyAdvice advice = new FilteredResponseBodyAdvice();
+        MethodParameter summary = new MethodParameter(Controller.class.getMethod("summary"), -1);
+        MethodParameter plain = new MethodParameter(Controller.class.getMethod("plain"), -1);
+
+        Assert.assertTrue(advice.supports(summary, FilteredWriterHttpMessageConverter.class));
+        Assert.assertFalse(advice.supports(plain, FilteredWriterHttpMessageConverter.class));
+
+        Object body = advice.beforeBodyWrite(order, summary, MediaType.APPLICATION_JSON,
+                FilteredWriterHttpMessageConverter.class, null, null);
+        Assert.assertEquals("summary", ((FilteredValue) body).getWriterName());
+        Assert.assertSame(order, ((FilteredValue) body).getValue());
+    }
+
+}
@@ -0,0 +1,28 @@
+package rk.prod.jackson.spring;
+
+import com.fasterxml.jackson.annotation.JsonFilter;
+
+@JsonFilter("nestedPropertyFilter")
+public class Order {
+    private String id;
+    private String customer;
+    private Order parent;
+
+    public Order(String id, String customer, Order parent) {
+        this.id = id;
+        this.customer = customer;
+        this.parent = parent;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getCustomer() {
+        return customer;
+    }
+
+    public Order getParent() {
+        return parent;
+    }
+}
@@ -0,0 +1,83 @@
+package rk.prod.jackson;
+
+import com.google.common.base.Throwables;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * BoundedMetadataCache is a size bounded, least recently used evicting
+ * MetadataCache on top of a guava Cache
+ */
+public class BoundedMetadataCache<K, V> implements MetadataCache<K, V> {
+
+    private final Cache<K, V> cache;
+
+    public BoundedMetadataCache(long maximumSize) {
+        this.cache = CacheBuilder.newBuilder()
+                .maximumSize(maximumSize)
+                .recordStats()
+                .build();
+    }
+
+    @Override
+    public V get(K key) {
+        return cache.getIfPresent(key);
+    }
+
+    @Override
+    public V get(K key, Callable<V> loader) {
+        try {
+            return cache.get(key, loader);
+        } catch (ExecutionException e) {
+            throw launderCause(e.getCause());
+        } catch (UncheckedExecutionException e) {
+            throw launderCause(e.getCause());
+        }
+    }
+
+    // unchecked exceptions of the loader, i.e., a bad filter spec, are rethrown as is
+    private static RuntimeException launderCause(Throwable cause) {
+        Throwables.throwIfUnchecked(cause);
+        return new RuntimeException(cause);
+    }
+
+    @Override
+    public void put(K key, V value) {
+        cache.put(key, value);
+    }
+
+    @Override
+    public void invalidate(K key) {
+        cache.invalidate(key);
+    }
+
+    @Override
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    @Override
+    public Set<K> keys() {
+        return new HashSet<>(cache.asMap().keySet());
+    }
+
+    @Override
+    public long size() {
+        return cache.size();
+    }
+
+    @Override
+    public MetadataCacheStats stats() {
+        CacheStats stats = cache.stats();
+        return new MetadataCacheStats(stats.hitCount(), stats.missCount(), stats.evictionCount(),
+                stats.loadCount(), stats.totalLoadTime(), cache.size());
+    }
+
+}
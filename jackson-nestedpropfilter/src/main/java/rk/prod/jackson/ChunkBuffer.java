@@ -0,0 +1,107 @@
+package rk.prod.jackson;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * ChunkBuffer is the output of one chunk of ParallelFilteredWriter, fixed size segments taken from
+ * a shared pool and given back once the chunk is copied to the response, so a large export does not
+ * allocate (and copy while growing) a byte array per chunk
+ * <p>
+ * The pool keeps at most MAX_POOLED segments, a burst beyond that is left to the garbage collector
+ */
+final class ChunkBuffer extends OutputStream {
+
+    static final int SEGMENT_SIZE = 16 * 1024;
+
+    static final int MAX_POOLED = 256;
+
+    private static final Queue<byte[]> pool = new ConcurrentLinkedQueue<>();
+
+    // the size of the pool, ConcurrentLinkedQueue.size() is not constant time
+    private static final AtomicInteger pooled = new AtomicInteger();
+
+    private final List<byte[]> segments = new ArrayList<>();
+
+    private byte[] current;
+
+    private int position;
+
+    private int size;
+
+    private static byte[] acquire() {
+        byte[] segment = pool.poll();
+        if (segment == null) {
+            return new byte[SEGMENT_SIZE];
+        }
+        pooled.decrementAndGet();
+        return segment;
+    }
+
+    private void next() {
+        current = acquire();
+        segments.add(current);
+        position = 0;
+    }
+
+    @Override
+    public void write(int b) {
+        if (current == null || position == SEGMENT_SIZE) {
+            next();
+        }
+        current[position++] = (byte) b;
+        size++;
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) {
+        while (len > 0) {
+            if (current == null || position == SEGMENT_SIZE) {
+                next();
+            }
+            int n = Math.min(len, SEGMENT_SIZE - position);
+            System.arraycopy(b, off, current, position, n);
+            position += n;
+            off += n;
+            len -= n;
+            size += n;
+        }
+    }
+
+    int size() {
+        return size;
+    }
+
+    /*
+     * writes the bytes from (inclusive) to (exclusive) to out
+     */
+    void writeTo(OutputStream out, int from, int to) throws IOException {
+        for (int i = from / SEGMENT_SIZE; from < to; i++) {
+            int offset = from % SEGMENT_SIZE;
+            int n = Math.min(to - from, SEGMENT_SIZE - offset);
+            out.write(segments.get(i), offset, n);
+            from += n;
+        }
+    }
+
+    /*
+     * gives the segments back to the pool, the buffer must not be used afterwards
+     */
+    void release() {
+        for (byte[] segment : segments) {
+            if (pooled.incrementAndGet() <= MAX_POOLED) {
+                pool.offer(segment);
+            } else {
+                pooled.decrementAndGet();
+            }
+        }
+        segments.clear();
+        current = null;
+    }
+
+}
@@ -0,0 +1,11 @@
+package rk.prod.jackson;
+
+/**
+ * ClassScopedKey is a cache key belonging to a class, i.e., a root class and its
+ * filter spec, see MetadataCacheFactory.newClassScopedCache
+ */
+public interface ClassScopedKey {
+
+    Class<?> getClazz();
+
+}
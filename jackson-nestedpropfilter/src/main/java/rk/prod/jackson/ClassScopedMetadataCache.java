@@ -0,0 +1,111 @@
+package rk.prod.jackson;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.Callable;
+
+/**
+ * ClassScopedMetadataCache keeps one BoundedMetadataCache per class of the keys and
+ * stores it with the class (ClassValue), the keys and values reference their classes
+ * without keeping the class loader alive, so a redeployed application is collected
+ * together with the specs compiled for it
+ * <p>
+ * The bound is per class, at most maximumSize specs of each class are kept
+ */
+public class ClassScopedMetadataCache<K extends ClassScopedKey, V> implements MetadataCache<K, V> {
+
+    private final long maximumSize;
+
+    private final ClassValue<BoundedMetadataCache<K, V>> caches = new ClassValue<BoundedMetadataCache<K, V>>() {
+        @Override
+        protected BoundedMetadataCache<K, V> computeValue(Class<?> type) {
+            classes.add(type);
+            return new BoundedMetadataCache<>(maximumSize);
+        }
+    };
+
+    // weak, the classes having a cache, to report keys, size and stats
+    private final Set<Class<?>> classes = Collections.synchronizedSet(
+            Collections.newSetFromMap(new WeakHashMap<Class<?>, Boolean>()));
+
+    public ClassScopedMetadataCache(long maximumSize) {
+        this.maximumSize = maximumSize;
+    }
+
+    @Override
+    public V get(K key) {
+        return caches.get(key.getClazz()).get(key);
+    }
+
+    @Override
+    public V get(K key, Callable<V> loader) {
+        return caches.get(key.getClazz()).get(key, loader);
+    }
+
+    @Override
+    public void put(K key, V value) {
+        caches.get(key.getClazz()).put(key, value);
+    }
+
+    @Override
+    public void invalidate(K key) {
+        caches.get(key.getClazz()).invalidate(key);
+    }
+
+    @Override
+    public void invalidateAll() {
+        for (Class<?> clazz : classes()) {
+            caches.get(clazz).invalidateAll();
+        }
+    }
+
+    private Set<Class<?>> classes() {
+        synchronized (classes) {
+            return new HashSet<>(classes);
+        }
+    }
+
+    @Override
+    public Set<K> keys() {
+        Set<K> keys = new HashSet<>();
+        for (Class<?> clazz : classes()) {
+            keys.addAll(caches.get(clazz).keys());
+        }
+        return keys;
+    }
+
+    @Override
+    public long size() {
+        long size = 0;
+        for (Class<?> clazz : classes()) {
+            size += caches.get(clazz).size();
+        }
+        return size;
+    }
+
+    /*
+     * the sum of the counters of the classes still loaded
+     */
+    @Override
+    public MetadataCacheStats stats() {
+        long hitCount = 0;
+        long missCount = 0;
+        long evictionCount = 0;
+        long loadCount = 0;
+        long totalLoadTimeNanos = 0;
+        long size = 0;
+        for (Class<?> clazz : classes()) {
+            MetadataCacheStats stats = caches.get(clazz).stats();
+            hitCount += stats.getHitCount();
+            missCount += stats.getMissCount();
+            evictionCount += stats.getEvictionCount();
+            loadCount += stats.getLoadCount();
+            totalLoadTimeNanos += stats.getTotalLoadTimeNanos();
+            size += stats.getSize();
+        }
+        return new MetadataCacheStats(hitCount, missCount, evictionCount, loadCount, totalLoadTimeNanos, size);
+    }
+
+}
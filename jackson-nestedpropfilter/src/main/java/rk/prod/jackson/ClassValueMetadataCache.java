@@ -0,0 +1,215 @@
+package rk.prod.jackson;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * ClassValueMetadataCache stores the value with the class itself (ClassValue),
+ * a value referencing its own class does not keep the class loader alive,
+ * so redeployed classes are collected together with their metadata
+ * <p>
+ * Not bounded, the number of classes is
+ */
+public class ClassValueMetadataCache<V> implements MetadataCache<Class<?>, V> {
+
+    private final ClassValue<Holder<V>> values = new ClassValue<Holder<V>>() {
+        @Override
+        protected Holder<V> computeValue(Class<?> type) {
+            return new Holder<>();
+        }
+    };
+
+    // loads in progress, entries only live as long as the load
+    private final ConcurrentHashMap<Class<?>, FutureTask<V>> loads = new ConcurrentHashMap<>();
+
+    // weak, only to report keys and size
+    private final Set<Class<?>> keys = Collections.synchronizedSet(
+            Collections.newSetFromMap(new WeakHashMap<Class<?>, Boolean>()));
+
+    private final AtomicLong hitCount = new AtomicLong();
+
+    private final AtomicLong missCount = new AtomicLong();
+
+    private final AtomicLong loadCount = new AtomicLong();
+
+    private final AtomicLong totalLoadTimeNanos = new AtomicLong();
+
+    // incremented by invalidateAll, loads started before are not stored
+    private final AtomicLong epoch = new AtomicLong();
+
+    @Override
+    public V get(Class<?> key) {
+        V value = values.get(key).value;
+        (value == null ? missCount : hitCount).incrementAndGet();
+        return value;
+    }
+
+    /*
+     * concurrent loads of the same class are deduplicated, the first caller
+     * builds and the others wait on its result, a load racing an invalidate
+     * returns its value but does not cache it
+     */
+    @Override
+    public V get(Class<?> key, Callable<V> loader) {
+        Holder<V> holder = values.get(key);
+        V value = holder.value;
+        if (value != null) {
+            hitCount.incrementAndGet();
+            return value;
+        }
+        missCount.incrementAndGet();
+        FutureTask<V> task = new FutureTask<>(new Load(key, holder, loader));
+        FutureTask<V> inFlight = loads.putIfAbsent(key, task);
+        if (inFlight == null) {
+            try {
+                task.run();
+                return await(task);
+            } finally {
+                loads.remove(key, task);
+            }
+        }
+        return await(inFlight);
+    }
+
+    private static <V> V await(FutureTask<V> task) {
+        try {
+            return task.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        } catch (ExecutionException e) {
+            throw launderCause(e);
+        }
+    }
+
+    private static RuntimeException launderCause(ExecutionException e) {
+        Throwable cause = e.getCause();
+        if (cause instanceof RuntimeException) {
+            return (RuntimeException) cause;
+        }
+        if (cause instanceof Error) {
+            throw (Error) cause;
+        }
+        return new RuntimeException(cause);
+    }
+
+    @Override
+    public void put(Class<?> key, V value) {
+        Holder<V> holder = values.get(key);
+        synchronized (holder) {
+            keys.add(key);
+            holder.value = value;
+        }
+    }
+
+    /*
+     * stores the value of a load unless the key or the whole cache was invalidated
+     * since it started, the key is added first so a concurrent invalidateAll sees it
+     */
+    private void putLoaded(Class<?> key, Holder<V> holder, int generation, long epochAtStart, V value) {
+        synchronized (holder) {
+            keys.add(key);
+            if (holder.generation == generation && epoch.get() == epochAtStart) {
+                holder.value = value;
+            } else if (holder.value == null) {
+                keys.remove(key);
+            }
+        }
+    }
+
+    /*
+     * the holder stays with the class, a load in progress sees the new generation
+     */
+    @Override
+    public void invalidate(Class<?> key) {
+        Holder<V> holder = values.get(key);
+        synchronized (holder) {
+            holder.value = null;
+            holder.generation++;
+            keys.remove(key);
+        }
+    }
+
+    @Override
+    public void invalidateAll() {
+        epoch.incrementAndGet();
+        for (Class<?> key : keys()) {
+            invalidate(key);
+        }
+    }
+
+    @Override
+    public Set<Class<?>> keys() {
+        synchronized (keys) {
+            return new HashSet<>(keys);
+        }
+    }
+
+    @Override
+    public long size() {
+        return keys.size();
+    }
+
+    @Override
+    public MetadataCacheStats stats() {
+        return new MetadataCacheStats(hitCount.get(), missCount.get(), 0,
+                loadCount.get(), totalLoadTimeNanos.get(), size());
+    }
+
+    private static final class Holder<V> {
+        private volatile V value;
+
+        // incremented by invalidate, guarded by the holder
+        private int generation;
+    }
+
+    /*
+     * the load run by the first caller, it checks the holder again as an earlier
+     * load may have finished between the miss and winning the in-flight slot
+     */
+    private final class Load implements Callable<V> {
+
+        private final Class<?> key;
+
+        private final Holder<V> holder;
+
+        private final Callable<V> loader;
+
+        private Load(Class<?> key, Holder<V> holder, Callable<V> loader) {
+            this.key = key;
+            this.holder = holder;
+            this.loader = loader;
+        }
+
+        @Override
+        public V call() throws Exception {
+            int generation;
+            long epochAtStart;
+            synchronized (holder) {
+                V value = holder.value;
+                if (value != null) {
+                    return value;
+                }
+                generation = holder.generation;
+                epochAtStart = epoch.get();
+            }
+            long start = System.nanoTime();
+            try {
+                V value = loader.call();
+                putLoaded(key, holder, generation, epochAtStart, value);
+                return value;
+            } finally {
+                loadCount.incrementAndGet();
+                totalLoadTimeNanos.addAndGet(System.nanoTime() - start);
+            }
+        }
+    }
+
+}
@@ -0,0 +1,113 @@
+package rk.prod.jackson;
+
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * CompactMap is the immutable String keyed map of frozen metadata (see JacksonClassAttribute.freeze),
+ * two arrays sorted by key and a binary search instead of a HashMap with a table and one entry object
+ * per property, keys are interned so all frozen attributes of a class share their property names
+ * <p>
+ * Maps without entries are the one EMPTY instance
+ */
+final class CompactMap<V> extends AbstractMap<String, V> {
+
+    private static final Interner<String> names = Interners.newWeakInterner();
+
+    private static final CompactMap<Object> EMPTY = new CompactMap<>(new String[0], new Object[0]);
+
+    private final String[] keys;
+
+    private final Object[] values;
+
+    private CompactMap(String[] keys, Object[] values) {
+        this.keys = keys;
+        this.values = values;
+    }
+
+    @SuppressWarnings("unchecked")
+    static <V> CompactMap<V> copyOf(Map<String, V> map) {
+        if (map instanceof CompactMap) {
+            return (CompactMap<V>) map;
+        }
+        if (map.isEmpty()) {
+            return (CompactMap<V>) EMPTY;
+        }
+        String[] keys = map.keySet().toArray(new String[map.size()]);
+        Arrays.sort(keys);
+        Object[] values = new Object[keys.length];
+        for (int i = 0; i < keys.length; i++) {
+            values[i] = map.get(keys[i]);
+            keys[i] = names.intern(keys[i]);
+        }
+        return new CompactMap<>(keys, values);
+    }
+
+    private int indexOf(Object key) {
+        return key instanceof String ? Arrays.binarySearch(keys, key) : -1;
+    }
+
+    @Override
+    public int size() {
+        return keys.length;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return indexOf(key) >= 0;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V get(Object key) {
+        int index = indexOf(key);
+        return index < 0 ? null : (V) values[index];
+    }
+
+    @Override
+    public Set<Entry<String, V>> entrySet() {
+        return new AbstractSet<Entry<String, V>>() {
+            @Override
+            public Iterator<Entry<String, V>> iterator() {
+                return new Iterator<Entry<String, V>>() {
+
+                    private int next;
+
+                    @Override
+                    public boolean hasNext() {
+                        return next < keys.length;
+                    }
+
+                    @Override
+                    @SuppressWarnings("unchecked")
+                    public Entry<String, V> next() {
+                        if (next >= keys.length) {
+                            throw new NoSuchElementException();
+                        }
+                        int index = next++;
+                        return new SimpleImmutableEntry<>(keys[index], (V) values[index]);
+                    }
+
+                    @Override
+                    public void remove() {
+                        throw new UnsupportedOperationException();
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return keys.length;
+            }
+        };
+    }
+
+}
@@ -0,0 +1,38 @@
+package rk.prod.jackson;
+
+/**
+ * DefaultMetadataCacheFactory stores class metadata with the class (ClassValueMetadataCache)
+ * and keeps at most maximumSize entries per spec cache (BoundedMetadataCache), specs of
+ * a class are stored with the class as well, at most maximumSize per class and cache
+ * (ClassScopedMetadataCache)
+ */
+public class DefaultMetadataCacheFactory implements MetadataCacheFactory {
+
+    public static final long DEFAULT_MAXIMUM_SIZE = 10000;
+
+    private final long maximumSize;
+
+    public DefaultMetadataCacheFactory() {
+        this(DEFAULT_MAXIMUM_SIZE);
+    }
+
+    public DefaultMetadataCacheFactory(long maximumSize) {
+        this.maximumSize = maximumSize;
+    }
+
+    @Override
+    public <V> MetadataCache<Class<?>, V> newClassCache(String name) {
+        return new ClassValueMetadataCache<>();
+    }
+
+    @Override
+    public <K, V> MetadataCache<K, V> newSpecCache(String name) {
+        return new BoundedMetadataCache<>(maximumSize);
+    }
+
+    @Override
+    public <K extends ClassScopedKey, V> MetadataCache<K, V> newClassScopedCache(String name) {
+        return new ClassScopedMetadataCache<>(maximumSize);
+    }
+
+}
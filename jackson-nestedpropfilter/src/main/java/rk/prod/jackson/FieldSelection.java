@@ -0,0 +1,114 @@
+package rk.prod.jackson;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * FieldSelection parses the grouped field selection syntax clients send per request
+ * into a FilterSpec, i.e.,
+ * <p>
+ * a,c(a,c(*))   is the same as   "a", "c.a", "c.c.*"
+ * <p>
+ * a group applies its prefix to every selection inside the parentheses, dotted
+ * paths (c.a) may be used anywhere and whitespace around names is ignored
+ * <p>
+ * The query is scanned once, names are not split out of it, only the resulting
+ * paths are copied, see JacksonClassAttributeCache.getFieldSelection for the
+ * cached version
+ */
+public final class FieldSelection {
+
+    private final CharSequence query;
+
+    private final StringBuilder path = new StringBuilder();
+
+    private final List<String> paths = new ArrayList<>();
+
+    private int pos;
+
+    private FieldSelection(CharSequence query) {
+        this.query = query;
+    }
+
+    /*
+     * throws IllegalArgumentException with the position of the first syntax error
+     */
+    public static FilterSpec parse(CharSequence query) {
+        FieldSelection selection = new FieldSelection(query);
+        selection.skipWhitespace();
+        if (selection.pos < query.length()) {
+            selection.list();
+        }
+        if (selection.pos < query.length()) {
+            throw selection.error("unexpected '" + query.charAt(selection.pos) + "'");
+        }
+        return FilterSpec.of(selection.paths.toArray(new String[selection.paths.size()]));
+    }
+
+    // list := item (',' item)*
+    private void list() {
+        item();
+        while (pos < query.length() && query.charAt(pos) == ',') {
+            pos++;
+            item();
+        }
+    }
+
+    // item := name ('.' name)* ['(' list ')']
+    private void item() {
+        int prefixLength = path.length();
+        if (prefixLength > 0) {
+            path.append('.');
+        }
+        name();
+        while (pos < query.length() && query.charAt(pos) == '.') {
+            pos++;
+            path.append('.');
+            name();
+        }
+        if (pos < query.length() && query.charAt(pos) == '(') {
+            pos++;
+            skipWhitespace();
+            if (pos < query.length() && query.charAt(pos) == ')') {
+                throw error("empty group");
+            }
+            list();
+            if (pos >= query.length() || query.charAt(pos) != ')') {
+                throw error("missing ')'");
+            }
+            pos++;
+            skipWhitespace();
+        } else {
+            paths.add(path.toString());
+        }
+        path.setLength(prefixLength);
+    }
+
+    private void name() {
+        skipWhitespace();
+        int start = pos;
+        while (pos < query.length() && !isDelimiter(query.charAt(pos))) {
+            pos++;
+        }
+        if (start == pos) {
+            throw error("missing field name");
+        }
+        path.append(query, start, pos);
+        skipWhitespace();
+    }
+
+    private static boolean isDelimiter(char c) {
+        return c == ',' || c == '.' || c == '(' || c == ')' || Character.isWhitespace(c);
+    }
+
+    private void skipWhitespace() {
+        while (pos < query.length() && Character.isWhitespace(query.charAt(pos))) {
+            pos++;
+        }
+    }
+
+    private IllegalArgumentException error(String message) {
+        return new IllegalArgumentException(message + " at position " + pos + " of field selection: " + query);
+    }
+
+}
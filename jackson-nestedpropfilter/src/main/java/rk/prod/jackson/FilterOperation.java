@@ -0,0 +1,161 @@
+package rk.prod.jackson;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * FilterOperation combines two compiled filters of the same root class property by property,
+ * the class level maps class by class and the path tries node by node, i.e., with a, c.a and a, c.b
+ * <p>
+ * UNION      a, c.a, c.b
+ * INTERSECT  a, c
+ * MINUS      c.a
+ * <p>
+ * MINUS only drops the properties the second filter selects as a whole, a property the second
+ * filter just passes through to reach nested ones (c of c.b) is kept, its nested properties are
+ * subtracted instead
+ * <p>
+ * Slices are combined as well, the union and the intersection of the slices, MINUS keeps those of
+ * the first filter
+ */
+enum FilterOperation {
+
+    UNION, INTERSECT, MINUS;
+
+    private static final JacksonClassAttribute NOTHING = frozen(new JacksonClassAttribute(Object.class));
+
+    private static JacksonClassAttribute frozen(JacksonClassAttribute attribute) {
+        attribute.freeze();
+        return attribute;
+    }
+
+    /*
+     * combines the class level maps, a class missing on one side has no properties there
+     */
+    Map<Class<?>, JacksonClassAttribute> apply(Map<Class<?>, JacksonClassAttribute> first,
+                                               Map<Class<?>, JacksonClassAttribute> second) {
+        Set<Class<?>> classes = new HashSet<>(first.keySet());
+        classes.addAll(second.keySet());
+        Map<Class<?>, JacksonClassAttribute> result = new HashMap<>();
+        for (Class<?> clazz : classes) {
+            result.put(clazz, new JacksonClassAttribute(clazz));
+        }
+        for (Map.Entry<Class<?>, JacksonClassAttribute> entry : result.entrySet()) {
+            JacksonClassAttribute dest = entry.getValue();
+            JacksonClassAttribute firstAttribute = orNothing(first.get(entry.getKey()));
+            JacksonClassAttribute secondAttribute = orNothing(second.get(entry.getKey()));
+            for (String prop : properties(firstAttribute.getAttributes().keySet(), secondAttribute.getAttributes().keySet())) {
+                boolean inFirst = firstAttribute.getAttributes().containsKey(prop);
+                boolean inSecond = secondAttribute.getAttributes().containsKey(prop);
+                JacksonClassAttribute secondNested = secondAttribute.getAttributes().get(prop);
+                if (!includes(inFirst, inSecond, secondNested != null && !secondNested.getAttributes().isEmpty())) {
+                    continue;
+                }
+                JacksonClassAttribute nested = inFirst ? firstAttribute.getAttributes().get(prop) : secondNested;
+                dest.getAttributes().put(prop, nested == null ? null : result.get(nested.getClazz()));
+                PropertyOptions options = options(firstAttribute.getOptions(prop), inFirst,
+                        secondAttribute.getOptions(prop), inSecond);
+                dest.mergeOptions(prop, orNone(options));
+            }
+        }
+        return JacksonClassAttributeCache.freeze(result);
+    }
+
+    /*
+     * combines the path tries, a node reached again through a cycle (*) is combined once
+     */
+    PathTrieNode apply(PathTrieNode first, PathTrieNode second) {
+        return apply(first, second, new HashMap<List<PathTrieNode>, PathTrieNode>());
+    }
+
+    private PathTrieNode apply(PathTrieNode first, PathTrieNode second, Map<List<PathTrieNode>, PathTrieNode> combined) {
+        if (first == null || second == null) {
+            return this == INTERSECT ? null : this == MINUS ? first : first == null ? second : first;
+        }
+        List<PathTrieNode> key = Arrays.asList(first, second);
+        PathTrieNode node = combined.get(key);
+        if (node != null) {
+            return node;
+        }
+        IndexedPropertyFilter firstFilter = first.getFilter();
+        IndexedPropertyFilter secondFilter = second.getFilter();
+        Set<String> firstProperties = firstFilter.getProperties();
+        Set<String> secondProperties = secondFilter.getProperties();
+        Set<String> properties = new HashSet<>();
+        Map<String, PropertyOptions> options = new HashMap<>();
+        for (String prop : properties(firstProperties, secondProperties)) {
+            boolean inFirst = firstProperties.contains(prop);
+            boolean inSecond = secondProperties.contains(prop);
+            PathTrieNode secondChild = second.child(prop);
+            if (includes(inFirst, inSecond, secondChild != null && !secondChild.getFilter().getProperties().isEmpty())) {
+                properties.add(prop);
+                PropertyOptions propertyOptions = options(firstFilter.getOptions(prop), inFirst,
+                        secondFilter.getOptions(prop), inSecond);
+                if (propertyOptions != null) {
+                    options.put(prop, propertyOptions);
+                }
+            }
+        }
+        // the node is registered before its children are combined so cycles point back to it
+        Map<String, PathTrieNode> children = new HashMap<>();
+        node = PathTrieNode.of(firstFilter.getPropertyIndex(), properties, options, children);
+        combined.put(key, node);
+        for (String prop : properties) {
+            PathTrieNode child = apply(firstProperties.contains(prop) ? first.child(prop) : null,
+                    secondProperties.contains(prop) ? second.child(prop) : null, combined);
+            if (child != null) {
+                children.put(prop, child);
+            }
+        }
+        return node;
+    }
+
+    private static JacksonClassAttribute orNothing(JacksonClassAttribute attribute) {
+        return attribute == null ? NOTHING : attribute;
+    }
+
+    private Set<String> properties(Set<String> first, Set<String> second) {
+        Set<String> properties = new LinkedHashSet<>(first);
+        if (this == UNION) {
+            properties.addAll(second);
+        }
+        return properties;
+    }
+
+    private boolean includes(boolean inFirst, boolean inSecond, boolean secondHasNested) {
+        switch (this) {
+            case UNION:
+                return inFirst || inSecond;
+            case INTERSECT:
+                return inFirst && inSecond;
+            default:
+                return inFirst && (!inSecond || secondHasNested);
+        }
+    }
+
+    // null is no limit
+    private PropertyOptions options(PropertyOptions first, boolean inFirst, PropertyOptions second, boolean inSecond) {
+        PropertyOptions options;
+        switch (this) {
+            case UNION:
+                options = inFirst && inSecond ? PropertyOptions.union(orNone(first), orNone(second)) : inFirst ? first : second;
+                break;
+            case INTERSECT:
+                options = PropertyOptions.intersect(first, second);
+                break;
+            default:
+                options = first;
+        }
+        return options == null || options.isNone() ? null : options;
+    }
+
+    private static PropertyOptions orNone(PropertyOptions options) {
+        return options == null ? PropertyOptions.NONE : options;
+    }
+
+}
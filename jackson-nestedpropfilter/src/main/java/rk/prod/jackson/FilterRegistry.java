@@ -0,0 +1,22 @@
+package rk.prod.jackson;
+
+import com.fasterxml.jackson.databind.ObjectWriter;
+
+import java.util.Set;
+
+/**
+ * FilterRegistry hands out the filtered ObjectWriter registered with a name, the names are fixed
+ * at startup (FilteredWriterRegistry) or reloaded from configuration (ReloadableFilterRegistry)
+ */
+public interface FilterRegistry {
+
+    /*
+     * throws IllegalArgumentException if nothing is registered with the name
+     */
+    ObjectWriter writer(String name);
+
+    boolean contains(String name);
+
+    Set<String> names();
+
+}
@@ -0,0 +1,294 @@
+package rk.prod.jackson;
+
+import com.google.common.base.Joiner;
+import com.google.common.base.Splitter;
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * FilterSpec is the canonical form of the nested properties of a filter:
+ * trimmed, sorted and deduplicated, anything after a * is dropped and paths
+ * already covered by a * are removed, i.e., ("c.a", " a", "c.*", "a") and
+ * ("a", "c.*") are the same FilterSpec, a covered path with a slice or an inclusion
+ * rule is kept up to its last one, ("*", "items[:1].a") is ("*", "items[0:1].*")
+ * <p>
+ * A segment may carry a slice, items[0:50].a, see PropertySlice, and an inclusion
+ * rule, address?NON_NULL.city, see PropertyOptions
+ * <p>
+ * A path starting with ! excludes the property, ("*", "!c.c.b") is every property but
+ * c.c.b, exclusions are applied after the includes, c.!b is the same as !c.b
+ * <p>
+ * FilterSpecs are interned and immutable so they are compared by identity
+ * and hashed once
+ */
+public final class FilterSpec {
+
+    public static final String ASTRIX = "*";
+
+    public static final char EXCLUDE = '!';
+
+    private static final Splitter dotSplitter = Splitter.on('.')
+            .trimResults()
+            .omitEmptyStrings();
+
+    private static final Joiner dotJoiner = Joiner.on('.');
+
+    private static final Interner<FilterSpec> interner = Interners.newWeakInterner();
+
+    public static final FilterSpec EMPTY = interner.intern(new FilterSpec(new String[0]));
+
+    private final String[] paths;
+
+    private final int hash;
+
+    // lazily created, see children()
+    private volatile Map<String, FilterSpec> children;
+
+    // lazily created with children, see options()
+    private volatile Map<String, PropertyOptions> options;
+
+    // lazily created with children, see excluded()
+    private volatile Set<String> excluded;
+
+    private FilterSpec(String[] paths) {
+        this.paths = paths;
+        this.hash = Arrays.hashCode(paths);
+    }
+
+    public static FilterSpec of(String... properties) {
+        TreeSet<String> paths = new TreeSet<>();
+        for (String property : properties) {
+            List<String> segments = new ArrayList<>(dotSplitter.splitToList(property));
+            boolean exclusion = false;
+            for (int i = 0; i < segments.size(); i++) {
+                String segment = segments.get(i);
+                if (segment.charAt(0) == EXCLUDE) {
+                    exclusion = true;
+                    segment = segment.substring(1).trim();
+                }
+                segments.set(i, segment);
+            }
+            if (exclusion) {
+                if (segments.contains(ASTRIX) || segments.contains("")) {
+                    throw new IllegalArgumentException("invalid exclusion " + property);
+                }
+                for (String segment : segments) {
+                    if (!PropertyOptions.parse(segment).isNone()) {
+                        throw new IllegalArgumentException("slices and inclusion rules can not be excluded " + property);
+                    }
+                }
+                paths.add(EXCLUDE + dotJoiner.join(segments));
+                continue;
+            }
+            int astrix = segments.indexOf(ASTRIX);
+            if (astrix >= 0) {
+                segments = segments.subList(0, astrix + 1);
+            }
+            for (int i = 0; i < segments.size(); i++) {
+                segments.set(i, PropertyOptions.canonical(segments.get(i)));
+            }
+            if (!segments.isEmpty()) {
+                paths.add(dotJoiner.join(segments));
+            }
+        }
+        return of(paths);
+    }
+
+    /*
+     * every property but the given ones, i.e., ("c.c.b") is ("*", "!c.c.b")
+     */
+    public static FilterSpec allExcept(String... properties) {
+        String[] paths = new String[properties.length + 1];
+        paths[0] = ASTRIX;
+        for (int i = 0; i < properties.length; i++) {
+            paths[i + 1] = EXCLUDE + properties[i].trim();
+        }
+        return of(paths);
+    }
+
+    private static FilterSpec of(TreeSet<String> sortedPaths) {
+        TreeSet<String> paths = new TreeSet<>();
+        for (String path : sortedPaths) {
+            int covered = isExclusion(path) ? -1 : coveredSegments(path, sortedPaths);
+            if (covered < 0) {
+                paths.add(path);
+            } else {
+                // a slice or rule below the * still applies, everything after it is covered
+                List<String> segments = dotSplitter.splitToList(path);
+                for (int i = segments.size() - 1; i >= covered; i--) {
+                    if (!PropertyOptions.parse(segments.get(i)).isNone()) {
+                        paths.add(dotJoiner.join(segments.subList(0, i + 1)) + '.' + ASTRIX);
+                        break;
+                    }
+                }
+            }
+        }
+        return interner.intern(new FilterSpec(paths.toArray(new String[paths.size()])));
+    }
+
+    /*
+     * a.b.c is covered by *, a.*, a.b.* and a.b.c.*, returns the number of segments before
+     * the covering *, -1 if the path is not covered
+     */
+    private static int coveredSegments(String path, TreeSet<String> paths) {
+        int segments = 0;
+        int dot = -1;
+        do {
+            String astrix = path.substring(0, dot + 1) + ASTRIX;
+            if (!astrix.equals(path) && paths.contains(astrix)) {
+                return segments;
+            }
+            segments++;
+            dot = path.indexOf('.', dot + 1);
+        } while (dot >= 0);
+        return paths.contains(path + '.' + ASTRIX) ? segments : -1;
+    }
+
+    private static boolean isExclusion(String path) {
+        return path.charAt(0) == EXCLUDE;
+    }
+
+    public List<String> getPaths() {
+        return Collections.unmodifiableList(Arrays.asList(paths));
+    }
+
+    public boolean isEmpty() {
+        return paths.length == 0;
+    }
+
+    /*
+     * true if all properties at this level and below are selected
+     */
+    public boolean isAstrix() {
+        return paths.length == 1 && paths[0].equals(ASTRIX);
+    }
+
+    /*
+     * true if all properties at this level are selected, some may be excluded
+     */
+    public boolean hasAstrix() {
+        return Arrays.binarySearch(paths, ASTRIX) >= 0;
+    }
+
+    public boolean hasExclusions() {
+        return paths.length > 0 && isExclusion(paths[0]);
+    }
+
+    /*
+     * the properties excluded at this level, i.e., ("*", "!b", "!c.a") gives b
+     */
+    public Set<String> excluded() {
+        children();
+        return excluded;
+    }
+
+    /*
+     * the spec per first path segment with that segment removed, i.e.,
+     * ("a", "c.a", "c.c.*") gives a -> (), c -> ("a", "c.*")
+     * sub specs are canonical as well, so specs with common prefixes share them
+     * <p>
+     * keys are property names, their slices and inclusion rules are in options()
+     */
+    public Map<String, FilterSpec> children() {
+        Map<String, FilterSpec> result = children;
+        if (result == null) {
+            Map<String, TreeSet<String>> subPaths = new LinkedHashMap<>();
+            Map<String, PropertyOptions> propertyOptions = new LinkedHashMap<>();
+            Set<String> excludedProperties = new HashSet<>();
+            List<String> exclusions = new ArrayList<>();
+            for (String path : paths) {
+                if (isExclusion(path)) {
+                    exclusions.add(path.substring(1));
+                    continue;
+                }
+                int dot = path.indexOf('.');
+                String segment = dot < 0 ? path : path.substring(0, dot);
+                String property = PropertyOptions.propertyName(segment);
+                propertyOptions.put(property, PropertyOptions.union(propertyOptions.get(property),
+                        PropertyOptions.parse(segment)));
+                TreeSet<String> sub = subPaths.get(property);
+                if (sub == null) {
+                    sub = new TreeSet<>();
+                    subPaths.put(property, sub);
+                }
+                if (dot >= 0) {
+                    sub.add(path.substring(dot + 1));
+                }
+            }
+            // nested exclusions go to the child of an included property, below a * the child
+            // is all properties (*) minus the exclusions
+            boolean astrix = subPaths.containsKey(ASTRIX);
+            for (String exclusion : exclusions) {
+                int dot = exclusion.indexOf('.');
+                if (dot < 0) {
+                    excludedProperties.add(exclusion);
+                    continue;
+                }
+                String property = exclusion.substring(0, dot);
+                TreeSet<String> sub = subPaths.get(property);
+                if (sub == null && astrix) {
+                    sub = new TreeSet<>();
+                    sub.add(ASTRIX);
+                    subPaths.put(property, sub);
+                }
+                if (sub != null) {
+                    sub.add(EXCLUDE + exclusion.substring(dot + 1));
+                }
+            }
+            result = new LinkedHashMap<>();
+            for (Map.Entry<String, TreeSet<String>> entry : subPaths.entrySet()) {
+                result.put(entry.getKey(), of(entry.getValue()));
+            }
+            for (Iterator<PropertyOptions> it = propertyOptions.values().iterator(); it.hasNext(); ) {
+                if (it.next().isNone()) {
+                    it.remove();
+                }
+            }
+            options = Collections.unmodifiableMap(propertyOptions);
+            excluded = Collections.unmodifiableSet(excludedProperties);
+            children = result = Collections.unmodifiableMap(result);
+        }
+        return result;
+    }
+
+    /*
+     * the options (slices, inclusion rules) per first path segment property, only properties having any
+     */
+    public Map<String, PropertyOptions> options() {
+        children();
+        return options;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+
+        if (o == null || getClass() != o.getClass()) return false;
+
+        FilterSpec that = (FilterSpec) o;
+
+        return hash == that.hash && Arrays.equals(paths, that.paths);
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        return "FilterSpec" + Arrays.toString(paths);
+    }
+
+}
@@ -0,0 +1,127 @@
+package rk.prod.jackson;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.util.Iterator;
+
+/**
+ * FilteredStreamWriter writes elements one by one as a JSON array through one generator, so an
+ * export does not hold its result set on the heap, i.e., from a cursor or a row callback
+ * <p>
+ * try (FilteredStreamWriter out = registry.streamWriter("orderSummary", response.getOutputStream())) {
+ * out.writeAll(orderCursor);
+ * }
+ * <p>
+ * The output is flushed every flushSize elements (and on close) instead of after every element,
+ * writes block while the target does, which is the backpressure for the element source, the
+ * target is not closed
+ * <p>
+ * Not thread safe, one writer per response
+ */
+public class FilteredStreamWriter implements Closeable, Flushable {
+
+    public static final int DEFAULT_FLUSH_SIZE = 256;
+
+    private final JsonGenerator generator;
+
+    private final SequenceWriter sequenceWriter;
+
+    private final int flushSize;
+
+    private int unflushed;
+
+    private long count;
+
+    private boolean closed;
+
+    private FilteredStreamWriter(ObjectWriter writer, OutputStream out, int flushSize) throws IOException {
+        if (flushSize < 1) {
+            throw new IllegalArgumentException("flushSize must be positive: " + flushSize);
+        }
+        this.flushSize = flushSize;
+        this.generator = writer.getFactory().createGenerator(out, JsonEncoding.UTF8);
+        generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        this.sequenceWriter = writer.without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE).writeValuesAsArray(generator);
+    }
+
+    /*
+     * writer is the filtered writer of the elements, i.e., FilteredWriterRegistry.writer
+     */
+    public static FilteredStreamWriter open(ObjectWriter writer, OutputStream out) throws IOException {
+        return new FilteredStreamWriter(writer, out, DEFAULT_FLUSH_SIZE);
+    }
+
+    public static FilteredStreamWriter open(ObjectWriter writer, OutputStream out, int flushSize) throws IOException {
+        return new FilteredStreamWriter(writer, out, flushSize);
+    }
+
+    /*
+     * the channel must be blocking, see Channels.newOutputStream
+     */
+    public static FilteredStreamWriter open(ObjectWriter writer, WritableByteChannel channel, int flushSize)
+            throws IOException {
+        return new FilteredStreamWriter(writer, Channels.newOutputStream(channel), flushSize);
+    }
+
+    /*
+     * writes one element, for sources pushing their elements (callbacks, listeners)
+     */
+    public FilteredStreamWriter write(Object value) throws IOException {
+        if (closed) {
+            throw new IllegalStateException("FilteredStreamWriter is closed");
+        }
+        sequenceWriter.write(value);
+        count++;
+        if (++unflushed == flushSize) {
+            flush();
+        }
+        return this;
+    }
+
+    public FilteredStreamWriter writeAll(Iterator<?> values) throws IOException {
+        while (values.hasNext()) {
+            write(values.next());
+        }
+        return this;
+    }
+
+    public FilteredStreamWriter writeAll(Iterable<?> values) throws IOException {
+        return writeAll(values.iterator());
+    }
+
+    /*
+     * the number of elements written so far
+     */
+    public long getCount() {
+        return count;
+    }
+
+    @Override
+    public void flush() throws IOException {
+        unflushed = 0;
+        generator.flush();
+    }
+
+    /*
+     * ends the array and flushes, the target stays open
+     */
+    @Override
+    public void close() throws IOException {
+        if (!closed) {
+            closed = true;
+            sequenceWriter.close();
+            generator.close();
+        }
+    }
+
+}
@@ -0,0 +1,103 @@
+package rk.prod.jackson;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * FilteredWriterRegistry builds one immutable ObjectWriter per named filter with the root type,
+ * the filter provider and the compiled filter already attached, so a response is written with
+ * <p>
+ * registry.writer("orderSummary").writeValueAsString(order)
+ * <p>
+ * instead of creating a MappingJacksonValue and a FilterProvider per request, writers are thread
+ * safe and share the serializer caches of the ObjectMapper they were built from
+ */
+public class FilteredWriterRegistry implements FilterRegistry {
+
+    public static final String DEFAULT_FILTER_ID = "nestedPropertyFilter";
+
+    private final ObjectMapper objectMapper;
+
+    private final String filterId;
+
+    private final Map<String, ObjectWriter> writers = new ConcurrentHashMap<>();
+
+    public FilteredWriterRegistry(ObjectMapper objectMapper) {
+        this(objectMapper, DEFAULT_FILTER_ID);
+    }
+
+    /*
+     * filterId is the id of the @JsonFilter annotations (or mixin) of the filtered classes
+     */
+    public FilteredWriterRegistry(ObjectMapper objectMapper, String filterId) {
+        this.objectMapper = objectMapper;
+        this.filterId = filterId;
+    }
+
+    public FilteredWriterRegistry register(String name, Class<?> clazz, String... properties) {
+        return register(name, clazz, NestedBeanPropertyFilter.filterOutAllExcept(clazz, properties));
+    }
+
+    /*
+     * registers a filter built any other way, i.e., path aware, field selection or combined filters,
+     * a name registered again is replaced
+     */
+    public FilteredWriterRegistry register(String name, Class<?> clazz, SimpleBeanPropertyFilter filter) {
+        writers.put(name, filteredWriter(objectMapper, filterId, clazz, filter));
+        return this;
+    }
+
+    static ObjectWriter filteredWriter(ObjectMapper objectMapper, String filterId, Class<?> clazz,
+                                       SimpleBeanPropertyFilter filter) {
+        NestedPropertyFilterProvider filterProvider = new NestedPropertyFilterProvider();
+        filterProvider.addFilter(filterId, filter);
+        return objectMapper.writer(filterProvider).forType(clazz);
+    }
+
+    @Override
+    public ObjectWriter writer(String name) {
+        ObjectWriter writer = writers.get(name);
+        if (writer == null) {
+            throw new IllegalArgumentException("No filtered writer registered with name '" + name + "'");
+        }
+        return writer;
+    }
+
+    /*
+     * writes large collections of the registered class in parallel chunks, see ParallelFilteredWriter
+     */
+    public ParallelFilteredWriter parallelWriter(String name) {
+        return new ParallelFilteredWriter(writer(name));
+    }
+
+    /*
+     * writes elements of the registered class one by one as a JSON array, see FilteredStreamWriter
+     */
+    public FilteredStreamWriter streamWriter(String name, OutputStream out) throws IOException {
+        return FilteredStreamWriter.open(writer(name), out);
+    }
+
+    @Override
+    public boolean contains(String name) {
+        return writers.containsKey(name);
+    }
+
+    @Override
+    public Set<String> names() {
+        return Collections.unmodifiableSet(writers.keySet());
+    }
+
+    public String writeValueAsString(String name, Object value) throws JsonProcessingException {
+        return writer(name).writeValueAsString(value);
+    }
+
+}
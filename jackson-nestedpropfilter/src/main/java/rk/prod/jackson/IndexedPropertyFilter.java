@@ -0,0 +1,159 @@
+package rk.prod.jackson;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.BeanPropertyWriter;
+import com.fasterxml.jackson.databind.ser.PropertyWriter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * IndexedPropertyFilter is the per class filterOutAllExcept filter of a
+ * NestedBeanPropertyFilter, the included properties are compiled into a
+ * bit mask over the PropertyIndex of the class so the include decision
+ * per field is a probe of the class's name table and a bit test
+ */
+public class IndexedPropertyFilter extends SimpleBeanPropertyFilter {
+
+    private final PropertyIndex index;
+
+    private final long[] mask;
+
+    // options per property index, null if no property has any
+    private final PropertyOptions[] options;
+
+    // the writers of the properties with options wrapped with them, built on first use
+    private final AtomicReferenceArray<SlicedBeanPropertyWriter> slicedWriters;
+
+    // only set while NestedFilterMetrics are enabled
+    private final NestedFilterMetrics.FieldCounters counters;
+
+    public IndexedPropertyFilter(PropertyIndex index, Collection<String> properties) {
+        this(index, properties, Collections.<String, PropertyOptions>emptyMap(), null);
+    }
+
+    public IndexedPropertyFilter(PropertyIndex index, Collection<String> properties,
+                                 Map<String, PropertyOptions> options, NestedFilterMetrics.FieldCounters counters) {
+        this.index = index;
+        this.counters = counters;
+        this.options = options.isEmpty() ? null : new PropertyOptions[index.size()];
+        for (Map.Entry<String, PropertyOptions> entry : options.entrySet()) {
+            int i = index.indexOf(entry.getKey());
+            if (i >= 0) {
+                this.options[i] = entry.getValue();
+            }
+        }
+        this.slicedWriters = this.options == null ? null
+                : new AtomicReferenceArray<SlicedBeanPropertyWriter>(this.options.length);
+        this.mask = index.newMask();
+        for (String property : properties) {
+            int i = index.indexOf(property);
+            if (i >= 0) {
+                PropertyIndex.set(mask, i);
+            }
+        }
+    }
+
+    /*
+     * compiles the filter for the class and properties of a (filtered) JacksonClassAttribute
+     */
+    public static IndexedPropertyFilter of(JacksonClassAttribute attribute) {
+        return of(attribute, null);
+    }
+
+    public static IndexedPropertyFilter of(JacksonClassAttribute attribute, NestedFilterMetrics.FieldCounters counters) {
+        return new IndexedPropertyFilter(JacksonClassAttributeCache.getPropertyIndex(attribute.getClazz()),
+                attribute.getAttributes().keySet(), attribute.getOptions(), counters);
+    }
+
+    PropertyIndex getPropertyIndex() {
+        return index;
+    }
+
+    /*
+     * the included properties, see FilterOperation
+     */
+    Set<String> getProperties() {
+        Set<String> properties = new HashSet<>();
+        for (int i = 0; i < index.size(); i++) {
+            if (PropertyIndex.isSet(mask, i)) {
+                properties.add(index.nameOf(i));
+            }
+        }
+        return properties;
+    }
+
+    PropertyOptions getOptions(String property) {
+        int i = index.indexOf(property);
+        return options == null || i < 0 ? null : options[i];
+    }
+
+    @Override
+    public void serializeAsField(Object pojo, JsonGenerator jgen, SerializerProvider provider, PropertyWriter writer)
+            throws Exception {
+        // one index lookup for the decision and the options
+        int i = index.indexOf(writer);
+        if (include(i)) {
+            serializeIncluded(pojo, jgen, provider, writer, i);
+        } else if (!jgen.canOmitFields()) {
+            writer.serializeAsOmittedField(pojo, jgen, provider);
+        }
+    }
+
+    /*
+     * writes the included property with index i, sliced or with its inclusion rule if its path has any
+     */
+    void serializeIncluded(Object pojo, JsonGenerator jgen, SerializerProvider provider, PropertyWriter writer,
+                           int i) throws Exception {
+        PropertyOptions propertyOptions = options == null ? null : options[i];
+        if (propertyOptions == null) {
+            writer.serializeAsField(pojo, jgen, provider);
+        } else if (writer instanceof BeanPropertyWriter && SlicedBeanPropertyWriter.canCopy((BeanPropertyWriter) writer)) {
+            slicedWriter(i, (BeanPropertyWriter) writer, propertyOptions).serializeAsField(pojo, jgen, provider);
+        } else {
+            propertyOptions.serializeAsField(pojo, jgen, provider, writer);
+        }
+    }
+
+    /*
+     * the writer of property i wrapped with its options, rebuilt when the filter is used
+     * with the writer of another serializer (another ObjectMapper or configuration)
+     */
+    private SlicedBeanPropertyWriter slicedWriter(int i, BeanPropertyWriter writer, PropertyOptions propertyOptions) {
+        SlicedBeanPropertyWriter slicedWriter = slicedWriters.get(i);
+        if (slicedWriter == null || !slicedWriter.isCopyOf(writer)) {
+            slicedWriter = new SlicedBeanPropertyWriter(writer, propertyOptions);
+            slicedWriters.set(i, slicedWriter);
+        }
+        return slicedWriter;
+    }
+
+    @Override
+    protected boolean include(BeanPropertyWriter writer) {
+        return include((PropertyWriter) writer);
+    }
+
+    @Override
+    protected boolean include(PropertyWriter writer) {
+        return include(index.indexOf(writer));
+    }
+
+    int indexOf(PropertyWriter writer) {
+        return index.indexOf(writer);
+    }
+
+    boolean include(int i) {
+        boolean include = PropertyIndex.isSet(mask, i);
+        if (NestedFilterMetrics.ENABLED && counters != null) {
+            counters.record(include);
+        }
+        return include;
+    }
+
+}
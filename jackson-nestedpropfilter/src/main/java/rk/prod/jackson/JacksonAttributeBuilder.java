@@ -1,50 +1,120 @@
 package rk.prod.jackson;
 
-import org.springframework.beans.BeanUtils;
+import com.fasterxml.jackson.databind.BeanDescription;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.SerializationConfig;
+import com.fasterxml.jackson.databind.introspect.AnnotatedMember;
+import com.fasterxml.jackson.databind.introspect.BasicClassIntrospector;
+import com.fasterxml.jackson.databind.introspect.BeanPropertyDefinition;
+import com.fasterxml.jackson.databind.introspect.ClassIntrospector;
 
-import java.beans.PropertyDescriptor;
-import java.lang.reflect.Field;
-import java.lang.reflect.ParameterizedType;
+import java.net.URI;
+import java.net.URL;
+import java.nio.charset.Charset;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
+import java.util.TimeZone;
+import java.util.UUID;
 
+/**
+ * JacksonAttributeBuilder introspects classes the way Jackson serializes them
+ * (BeanDescription of a SerializationConfig), so property names honor @JsonProperty,
+ * @JsonIgnore, mixins and naming strategies of that config
+ */
 public class JacksonAttributeBuilder {
 
-    private static final String JAVA_LANG_CLASS = "java.lang.Class";
+    /*
+     * every class is introspected once per build, a class reachable through several
+     * properties (or through itself) gets the attribute already in nonNestedAttributeMap,
+     * the result is a graph (possibly cyclic) rather than a tree
+     */
+    public static JacksonClassAttribute getNestedJsonAttribute(SerializationConfig config, Class<?> clazz,
+                                                               Map<Class<?>, JacksonClassAttribute> nonNestedAttributeMap,
+                                                               Set<Class<?>> classes) {
+        JacksonClassAttribute jsonAttribute = nonNestedAttributeMap.get(clazz);
+        if (jsonAttribute != null) {
+            return jsonAttribute;
+        }
+        jsonAttribute = new JacksonClassAttribute(clazz);
+        // before the nested properties, a self reference ends up here
+        nonNestedAttributeMap.put(clazz, jsonAttribute);
+        for (Map.Entry<String, Class<?>> property : getProperties(config, clazz).entrySet()) {
+            Class<?> nestedClazz = property.getValue();
+            if (nestedClazz != null) {
+                JacksonClassAttribute attribute = getNestedJsonAttribute(config, nestedClazz, nonNestedAttributeMap, classes);
+                jsonAttribute.getAttributes().put(property.getKey(), attribute);
+                classes.add(nestedClazz);
+            } else {
+                jsonAttribute.getAttributes().put(property.getKey(), null);
+            }
+        }
+
+        return jsonAttribute;
+    }
 
+    /**
+     * @deprecated introspection is done by Jackson now, use getNestedJsonAttribute
+     */
+    @Deprecated
     public static JacksonClassAttribute getBeanUtilsNestedJsonAttribute(Class<?> clazz,
                                                                         Map<Class<?>, JacksonClassAttribute> nonNestedAttributeMap,
                                                                         Set<Class<?>> classes) throws Exception {
-        JacksonClassAttribute jsonAttribute = new JacksonClassAttribute(clazz);
-        PropertyDescriptor[] descriptors = BeanUtils.getPropertyDescriptors(clazz);
-        for (PropertyDescriptor descr : descriptors) {
-            // if you want values, use: descr.getValue(attributeName)
-            if (descr.getPropertyType().getName().equals(JAVA_LANG_CLASS)) {
+        return getNestedJsonAttribute(JacksonClassAttributeCache.getSerializationConfig(), clazz, nonNestedAttributeMap, classes);
+    }
+
+    /*
+     * serializable properties of the class only, without walking nested classes
+     * -> simple properties have a value of null
+     * -> nested properties have the class to introspect next, for arrays, collections
+     * and maps the (innermost) content class
+     */
+    public static Map<String, Class<?>> getProperties(SerializationConfig config, Class<?> clazz) {
+        Map<String, Class<?>> properties = new LinkedHashMap<>();
+        // the introspector of the config keeps the last descriptions, i.e., of a redeployed
+        // application, the result is cached by JacksonClassAttributeCache anyway
+        ClassIntrospector introspector = config.getClassIntrospector();
+        if (introspector.getClass() == BasicClassIntrospector.class) {
+            introspector = new BasicClassIntrospector();
+        }
+        BeanDescription beanDesc = introspector.forSerialization(config, config.constructType(clazz), config);
+        for (BeanPropertyDefinition property : beanDesc.findProperties()) {
+            AnnotatedMember accessor = property.getAccessor();
+            if (accessor == null) {    // setter or constructor parameter only
                 continue;
             }
-            // a primitive, a CharSequence(String), Number, Date, URI, URL, Locale, Class, or corresponding array
-            // or add more like UUID or other types
-            if (!BeanUtils.isSimpleProperty(descr.getPropertyType())) {
-                Field collectionField = clazz.getDeclaredField(descr.getName());
-                if (collectionField.getGenericType() instanceof ParameterizedType) {
-                    ParameterizedType listType = (ParameterizedType) collectionField.getGenericType();
-                    Class<?> actualClazz = (Class<?>) listType.getActualTypeArguments()[0];
-
-                    JacksonClassAttribute attribute = getBeanUtilsNestedJsonAttribute(actualClazz, nonNestedAttributeMap, classes);
-                    jsonAttribute.getAttributes().put(descr.getName(), attribute);
-                    classes.add(actualClazz);
-                } else {    // or a complex custom type to get nested fields
-                    JacksonClassAttribute attribute = getBeanUtilsNestedJsonAttribute(descr.getPropertyType(), nonNestedAttributeMap, classes);
-                    jsonAttribute.getAttributes().put(descr.getName(), attribute);
-                    classes.add(descr.getPropertyType());
-                }
-            } else {
-                jsonAttribute.getAttributes().put(descr.getDisplayName(), null);
+            JavaType type = accessor.getType(beanDesc.bindingsForBeanType());
+            while (type.isContainerType() && type.getContentType() != null) {
+                type = type.getContentType();
             }
+            properties.put(property.getName(), isSimpleType(type.getRawClass()) ? null : type.getRawClass());
         }
+        return properties;
+    }
 
-        nonNestedAttributeMap.put(clazz, jsonAttribute);
-        return jsonAttribute;
+    // a primitive, a CharSequence(String), Number, Date, URI, URL, Locale, Class, Enum ...
+    // or add more like UUID or other types
+    static boolean isSimpleType(Class<?> clazz) {
+        return clazz.isPrimitive()
+                || clazz.isEnum()
+                || clazz == Object.class
+                || clazz == Boolean.class
+                || clazz == Character.class
+                || clazz == Class.class
+                || clazz == URI.class
+                || clazz == URL.class
+                || clazz == Locale.class
+                || clazz == UUID.class
+                || CharSequence.class.isAssignableFrom(clazz)
+                || Number.class.isAssignableFrom(clazz)
+                || Date.class.isAssignableFrom(clazz)
+                || Calendar.class.isAssignableFrom(clazz)
+                || TimeZone.class.isAssignableFrom(clazz)
+                || Charset.class.isAssignableFrom(clazz)
+                || Enum.class.isAssignableFrom(clazz);
     }
 
 }
@@ -1,6 +1,7 @@
 package rk.prod.jackson;
 
-import java.util.Arrays;
+import java.util.ArrayDeque;
+import java.util.Deque;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -26,9 +27,12 @@ public class JacksonClassAttribute {
 	 * <a, null>, <b, bClassAttribute>, <e, null>
 	 * where bClassAttribute will be stored as <c, cClassAttribute> and so on
 	 * 
-	 * This could have been a tree
+	 * This could have been a tree, but a class reachable through several properties
+	 * shares one JacksonClassAttribute, so self referencing classes make it a cyclic graph
+	 * 
+	 * a HashMap while the attribute is built, a CompactMap once it is frozen
 	 */
-	private final Map<String, JacksonClassAttribute> attributes = new HashMap<>();
+	private Map<String, JacksonClassAttribute> attributes = new HashMap<>();
 	
 	/* attributes containing same class
 	* required for filter to return JacksonClassAttribute based on object class
@@ -37,6 +41,13 @@ public class JacksonClassAttribute {
 	* final Map<Class<?>, Set<String>> reverseAttributes = new HashMap<>();
 	*/
 	
+	/* options (slices, inclusion rules) per property of a filtered attribute, see PropertyOptions,
+	 * null for the unfiltered metadata
+	 */
+	private Map<String, PropertyOptions> options;
+
+	private boolean frozen;
+
 	public JacksonClassAttribute(Class<?> clazz) {
 		this.clazz = clazz;
 	}
@@ -49,10 +60,93 @@ public class JacksonClassAttribute {
 		return attributes;
 	}
 
+	/*
+	 * returns the options of the property or null if it has none
+	 */
+	public PropertyOptions getOptions(String property) {
+		PropertyOptions propertyOptions = options == null ? null : options.get(property);
+		return propertyOptions == null || propertyOptions.isNone() ? null : propertyOptions;
+	}
+
+	/*
+	 * properties having options, see getOptions
+	 */
+	public Map<String, PropertyOptions> getOptions() {
+		Map<String, PropertyOptions> result = new HashMap<>();
+		if (options != null) {
+			for (Map.Entry<String, PropertyOptions> entry : options.entrySet()) {
+				if (!entry.getValue().isNone()) {
+					result.put(entry.getKey(), entry.getValue());
+				}
+			}
+		}
+		return result;
+	}
+
+	/*
+	 * a property reached by several paths gets the union of their options
+	 */
+	public void mergeOptions(String property, PropertyOptions propertyOptions) {
+		if (frozen) {
+			throw new IllegalStateException("frozen " + this);
+		}
+		if (options == null) {
+			options = new HashMap<>();
+		}
+		options.put(property, PropertyOptions.union(options.get(property), propertyOptions));
+	}
+
+	public boolean isFrozen() {
+		return frozen;
+	}
+
+	/*
+	 * makes this attribute immutable and compact once it is built, property names are
+	 * interned and shared, the maps become sorted arrays (see CompactMap) and options
+	 * without any slice or rule are dropped, nested attributes are frozen on their own
+	 */
+	void freeze() {
+		if (frozen) {
+			return;
+		}
+		attributes = CompactMap.copyOf(attributes);
+		Map<String, PropertyOptions> propertyOptions = getOptions();
+		options = propertyOptions.isEmpty() ? null : CompactMap.copyOf(propertyOptions);
+		frozen = true;
+	}
+
+	/*
+	 * freezes the attribute and every attribute reachable from it, the metadata
+	 * graph may be cyclic, lazy attributes freeze themselves once resolved
+	 */
+	static void freezeAll(JacksonClassAttribute root) {
+		Deque<JacksonClassAttribute> pending = new ArrayDeque<>();
+		pending.push(root);
+		while (!pending.isEmpty()) {
+			JacksonClassAttribute attribute = pending.pop();
+			if (attribute.frozen || attribute instanceof LazyJacksonClassAttribute) {
+				continue;
+			}
+			attribute.freeze();
+			for (JacksonClassAttribute nested : attribute.attributes.values()) {
+				if (nested != null) {
+					pending.push(nested);
+				}
+			}
+		}
+	}
+
+	// nested attributes by class name only, attributes can be cyclic
 	@Override
 	public String toString() {
-		return "JacksonClassAttribute [class=" + clazz
-				+ ", attributes=" + Arrays.toString(attributes.entrySet().toArray()) + "]";
+		StringBuilder sb = new StringBuilder("JacksonClassAttribute [class=").append(clazz).append(", attributes=[");
+		String separator = "";
+		for (Map.Entry<String, JacksonClassAttribute> entry : getAttributes().entrySet()) {
+			sb.append(separator).append(entry.getKey()).append('=')
+					.append(entry.getValue() == null ? null : entry.getValue().getClazz().getName());
+			separator = ", ";
+		}
+		return sb.append("]]").toString();
 	}
 
 }
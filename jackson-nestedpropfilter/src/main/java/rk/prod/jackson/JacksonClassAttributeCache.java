@@ -1,12 +1,15 @@
 package rk.prod.jackson;
 
+import com.fasterxml.jackson.core.filter.TokenFilter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationConfig;
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
 import com.google.common.base.Splitter;
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Lists;
-import org.apache.commons.lang3.builder.EqualsBuilder;
-import org.apache.commons.lang3.builder.HashCodeBuilder;
 
 import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Callable;
 
 /**
  * Cache that stores JsonClassAttributes - i.e., all nested attributes
@@ -26,32 +29,297 @@ public class JacksonClassAttributeCache {
 
     private static final ArrayList<String> PROP_ASTRIX = Lists.newArrayList("*");
 
-    private static final Map<KeyHolder, Map<Class<?>, JacksonClassAttribute>> cacheGlobal = new ConcurrentHashMap<>();
+    private static final FilterSpec ASTRIX_SPEC = FilterSpec.of(FilterSpec.ASTRIX);
 
-    // TODO: pre populate json class attribute map for ONLY root entities
-    private static final Map<Class<?>, JacksonClassAttribute> rootEntityNestedAttrMap = new ConcurrentHashMap<>();
+    private static volatile Caches caches = new Caches(new DefaultMetadataCacheFactory());
 
-    // only has attributes for the current class but includes all classes that
-    // NEED NOT BE root entities
-    private static final Map<Class<?>, JacksonClassAttribute> nonNestedAttrMap = new ConcurrentHashMap<>();
+    // properties are introspected the way this config serializes them
+    private static volatile SerializationConfig serializationConfig = new ObjectMapper().getSerializationConfig();
 
-    // all classes (nested) contained within a root class
-    private static final Map<Class<?>, Set<Class<?>>> nestedClassesMap = new ConcurrentHashMap<>();
+    // introspect only the classes reached by filter paths, see setLazyMetadata
+    private static volatile boolean lazyMetadata;
 
-    private static JacksonClassAttribute generateJsonAttribute(Class<?> clazz) {
-        JacksonClassAttribute classAttribute = rootEntityNestedAttrMap.get(clazz);
-        if (classAttribute == null) {
-            try {
+    /*
+     * all metadata caches, swapped as a whole when the cache factory changes
+     */
+    private static final class Caches {
+
+        private final MetadataCache<KeyHolder, Map<Class<?>, JacksonClassAttribute>> cacheGlobal;
+
+        // path aware counterpart of cacheGlobal, one trie per root class and properties
+        private final MetadataCache<KeyHolder, PathTrieNode> cachePathTrie;
+
+        // the compiled class level filter per root class and properties
+        private final MetadataCache<KeyHolder, SimpleBeanPropertyFilter> filterMap;
+
+        // union, intersection and difference of two compiled filters, see NestedBeanPropertyFilter.union
+        private final MetadataCache<CombinedKey, SimpleBeanPropertyFilter> combinedFilterMap;
+
+        // parsed field selection per raw query, see FieldSelection
+        private final MetadataCache<String, FilterSpec> fieldSelectionMap;
+
+        // streaming filter per spec, not tied to any class, see NestedPropertyTokenFilter
+        private final MetadataCache<FilterSpec, TokenFilter> tokenFilterMap;
+
+        // TODO: pre populate json class attribute map for ONLY root entities
+        private final MetadataCache<Class<?>, JacksonClassAttribute> rootEntityNestedAttrMap;
+
+        // only has attributes for the current class but includes all classes that
+        // NEED NOT BE root entities
+        private final MetadataCache<Class<?>, JacksonClassAttribute> nonNestedAttrMap;
+
+        // all classes (nested) contained within a root class
+        private final MetadataCache<Class<?>, Set<Class<?>>> nestedClassesMap;
+
+        // property index per class used by the compiled per class filters
+        private final MetadataCache<Class<?>, PropertyIndex> propertyIndexMap;
+
+        // one lazily introspected attribute per class, used instead of
+        // rootEntityNestedAttrMap and nonNestedAttrMap in lazy mode
+        private final MetadataCache<Class<?>, JacksonClassAttribute> lazyAttrMap;
+
+        Caches(MetadataCacheFactory factory) {
+            cacheGlobal = factory.newClassScopedCache("cacheGlobal");
+            cachePathTrie = factory.newClassScopedCache("cachePathTrie");
+            filterMap = factory.newClassScopedCache("filterMap");
+            combinedFilterMap = factory.newClassScopedCache("combinedFilterMap");
+            fieldSelectionMap = factory.newSpecCache("fieldSelectionMap");
+            tokenFilterMap = factory.newSpecCache("tokenFilterMap");
+            rootEntityNestedAttrMap = factory.newClassCache("rootEntityNestedAttrMap");
+            nonNestedAttrMap = factory.newClassCache("nonNestedAttrMap");
+            nestedClassesMap = factory.newClassCache("nestedClassesMap");
+            propertyIndexMap = factory.newClassCache("propertyIndexMap");
+            lazyAttrMap = factory.newClassCache("lazyAttrMap");
+        }
+
+        // the caches keyed by class
+        List<MetadataCache<Class<?>, ?>> byClass() {
+            List<MetadataCache<Class<?>, ?>> byClass = new ArrayList<>();
+            byClass.add(rootEntityNestedAttrMap);
+            byClass.add(nonNestedAttrMap);
+            byClass.add(nestedClassesMap);
+            byClass.add(propertyIndexMap);
+            byClass.add(lazyAttrMap);
+            return byClass;
+        }
+
+        Map<String, MetadataCache<?, ?>> byName() {
+            Map<String, MetadataCache<?, ?>> byName = new LinkedHashMap<>();
+            byName.put("cacheGlobal", cacheGlobal);
+            byName.put("cachePathTrie", cachePathTrie);
+            byName.put("filterMap", filterMap);
+            byName.put("combinedFilterMap", combinedFilterMap);
+            byName.put("fieldSelectionMap", fieldSelectionMap);
+            byName.put("tokenFilterMap", tokenFilterMap);
+            byName.put("rootEntityNestedAttrMap", rootEntityNestedAttrMap);
+            byName.put("nonNestedAttrMap", nonNestedAttrMap);
+            byName.put("nestedClassesMap", nestedClassesMap);
+            byName.put("propertyIndexMap", propertyIndexMap);
+            byName.put("lazyAttrMap", lazyAttrMap);
+            return byName;
+        }
+    }
+
+    /*
+     * replaces all caches with empty ones created by the given factory,
+     * filters created before keep working with the metadata they were compiled from
+     */
+    public static void setCacheFactory(MetadataCacheFactory factory) {
+        caches = new Caches(factory);
+    }
+
+    /*
+     * introspect properties the way the ObjectMapper serializes them, i.e., with its
+     * mixins, naming strategy and visibility, drops all cached metadata
+     */
+    public static void setSerializationConfig(SerializationConfig config) {
+        serializationConfig = config;
+        invalidateAll();
+    }
+
+    public static SerializationConfig getSerializationConfig() {
+        return serializationConfig;
+    }
+
+    /*
+     * in lazy mode a class is introspected only once a filter path (or *) reaches it
+     * instead of introspecting every class reachable from the root entity up front,
+     * switching modes drops all cached metadata
+     */
+    public static void setLazyMetadata(boolean lazy) {
+        if (lazyMetadata != lazy) {
+            lazyMetadata = lazy;
+            invalidateAll();
+        }
+    }
+
+    public static boolean isLazyMetadata() {
+        return lazyMetadata;
+    }
+
+    /*
+     * drops all metadata of the class as well as of all root classes and filter specs reaching it,
+     * path tries and compiled filters are dropped for all classes
+     */
+    public static void invalidate(Class<?> clazz) {
+        Caches current = caches;
+        if (lazyMetadata) {
+            // lazy attributes are shared between all roots and are not tracked per root
+            invalidateAll();
+            return;
+        }
+        Set<Class<?>> roots = new HashSet<>();
+        roots.add(clazz);
+        for (Class<?> root : current.nestedClassesMap.keys()) {
+            Set<Class<?>> nestedClasses = current.nestedClassesMap.get(root);
+            if (nestedClasses != null && nestedClasses.contains(clazz)) {
+                roots.add(root);
+            }
+        }
+        for (KeyHolder key : current.cacheGlobal.keys()) {
+            if (roots.contains(key.clazz)) {
+                current.cacheGlobal.invalidate(key);
+            }
+        }
+        // trie nodes are cached per intermediate class as well, i.e., the node of B in R -> B -> C
+        // reaches C without B being a root, so the tries and the filters compiled from them are
+        // dropped as a whole
+        current.cachePathTrie.invalidateAll();
+        current.filterMap.invalidateAll();
+        current.combinedFilterMap.invalidateAll();
+        for (Class<?> root : roots) {
+            current.rootEntityNestedAttrMap.invalidate(root);
+            current.nestedClassesMap.invalidate(root);
+        }
+        current.nonNestedAttrMap.invalidate(clazz);
+        current.propertyIndexMap.invalidate(clazz);
+    }
+
+    /*
+     * drops all metadata of classes loaded by the class loader as well as of all root classes
+     * and filter specs reaching them, i.e., on undeploy, path tries and compiled filters are
+     * dropped for all classes as in invalidate(Class), lazy attributes of the other class
+     * loaders stay as they can not reach the classes of this one
+     */
+    public static void invalidate(ClassLoader classLoader) {
+        Caches current = caches;
+        Set<Class<?>> classes = new HashSet<>();
+        for (MetadataCache<Class<?>, ?> cache : current.byClass()) {
+            for (Class<?> clazz : cache.keys()) {
+                if (clazz.getClassLoader() == classLoader) {
+                    classes.add(clazz);
+                }
+            }
+        }
+        for (Class<?> root : current.nestedClassesMap.keys()) {
+            Set<Class<?>> nestedClasses = current.nestedClassesMap.get(root);
+            if (nestedClasses != null && !Collections.disjoint(nestedClasses, classes)) {
+                classes.add(root);
+            }
+        }
+        for (KeyHolder key : current.cacheGlobal.keys()) {
+            if (classes.contains(key.clazz) || key.clazz.getClassLoader() == classLoader) {
+                current.cacheGlobal.invalidate(key);
+            }
+        }
+        current.cachePathTrie.invalidateAll();
+        current.filterMap.invalidateAll();
+        current.combinedFilterMap.invalidateAll();
+        for (MetadataCache<Class<?>, ?> cache : current.byClass()) {
+            for (Class<?> clazz : classes) {
+                cache.invalidate(clazz);
+            }
+        }
+    }
+
+    public static void invalidateAll() {
+        for (MetadataCache<?, ?> cache : caches.byName().values()) {
+            cache.invalidateAll();
+        }
+    }
+
+    /*
+     * hit, miss, eviction and load time counters per cache
+     */
+    public static Map<String, MetadataCacheStats> stats() {
+        Map<String, MetadataCacheStats> stats = new LinkedHashMap<>();
+        for (Map.Entry<String, MetadataCache<?, ?>> entry : caches.byName().entrySet()) {
+            stats.put(entry.getKey(), entry.getValue().stats());
+        }
+        return stats;
+    }
+
+    private static JacksonClassAttribute generateJsonAttribute(final Class<?> clazz) {
+        if (lazyMetadata) {
+            return getLazyJsonAttribute(clazz);
+        }
+        final Caches current = caches;
+        return current.rootEntityNestedAttrMap.get(clazz, new Callable<JacksonClassAttribute>() {
+            @Override
+            public JacksonClassAttribute call() throws Exception {
+                long start = NestedFilterMetrics.ENABLED ? System.nanoTime() : 0;
                 Set<Class<?>> nestedClasses = new HashSet<>();
-                classAttribute = JacksonAttributeBuilder.getBeanUtilsNestedJsonAttribute(
-                        clazz, nonNestedAttrMap, nestedClasses);
-                nestedClassesMap.put(clazz, nestedClasses);
-            } catch (Exception e) {
-                throw new RuntimeException(e);
+                Map<Class<?>, JacksonClassAttribute> nonNestedAttributeMap = new HashMap<>();
+                JacksonClassAttribute classAttribute = JacksonAttributeBuilder.getNestedJsonAttribute(
+                        serializationConfig, clazz, nonNestedAttributeMap, nestedClasses);
+                for (JacksonClassAttribute attribute : nonNestedAttributeMap.values()) {
+                    attribute.freeze();
+                }
+                for (Map.Entry<Class<?>, JacksonClassAttribute> entry : nonNestedAttributeMap.entrySet()) {
+                    current.nonNestedAttrMap.put(entry.getKey(), entry.getValue());
+                }
+                current.nestedClassesMap.put(clazz, nestedClasses);
+                if (NestedFilterMetrics.ENABLED) {
+                    NestedFilterMetrics.metadataBuilt(clazz, System.nanoTime() - start);
+                }
+                return classAttribute;
+            }
+        });
+    }
+
+    /*
+     * returns the one (lazily introspected) attribute of the class
+     */
+    public static JacksonClassAttribute getLazyJsonAttribute(final Class<?> clazz) {
+        return caches.lazyAttrMap.get(clazz, new Callable<JacksonClassAttribute>() {
+            @Override
+            public JacksonClassAttribute call() {
+                return new LazyJacksonClassAttribute(clazz);
+            }
+        });
+    }
+
+    /*
+     * builds the root entity metadata of the class and the property index of
+     * every class reachable from it, see MetadataWarmUp
+     */
+    public static void preload(Class<?> clazz) {
+        generateJsonAttribute(clazz).getAttributes();
+        getPropertyIndex(clazz);
+        Set<Class<?>> nestedClasses = caches.nestedClassesMap.get(clazz);
+        if (nestedClasses != null) {
+            for (Class<?> nestedClass : nestedClasses) {
+                getPropertyIndex(nestedClass);
             }
-            rootEntityNestedAttrMap.put(clazz, classAttribute);
         }
-        return classAttribute;
+    }
+
+    /*
+     * returns the index over all properties of the class, the same instance
+     * is shared by all compiled filters for that class
+     */
+    public static PropertyIndex getPropertyIndex(final Class<?> clazz) {
+        final Caches current = caches;
+        return current.propertyIndexMap.get(clazz, new Callable<PropertyIndex>() {
+            @Override
+            public PropertyIndex call() {
+                JacksonClassAttribute classAttribute = current.nonNestedAttrMap.get(clazz);
+                if (classAttribute == null) {
+                    classAttribute = generateJsonAttribute(clazz);
+                }
+                return new PropertyIndex(classAttribute.getAttributes().keySet());
+            }
+        });
     }
 
     /*
@@ -62,11 +330,16 @@ public class JacksonClassAttributeCache {
      *...
      */
     public static JacksonClassAttribute generateRootEntityNestedJsonAttribute(Class<?> clazz, String... properties) {
+        return generateRootEntityNestedJsonAttribute(clazz, FilterSpec.of(properties));
+    }
+
+    public static JacksonClassAttribute generateRootEntityNestedJsonAttribute(Class<?> clazz, FilterSpec spec) {
         JacksonClassAttribute srcAttribute = generateJsonAttribute(clazz);
         JacksonClassAttribute destAttribute = new JacksonClassAttribute(clazz);
-        for (String prop : properties) {
+        for (String prop : resolveExclusions(srcAttribute, spec).getPaths()) {
             copyAttribute(srcAttribute, destAttribute, dotSplitter.splitToList(prop), null);
         }
+        JacksonClassAttribute.freezeAll(destAttribute);
         return destAttribute;
     }
 
@@ -78,17 +351,185 @@ public class JacksonClassAttributeCache {
      *...
      */
     public static Map<Class<?>, JacksonClassAttribute> generateClassLevelJsonAttribute(Class<?> clazz, String... properties) {
-        KeyHolder key = new KeyHolder(clazz, properties);
-        Map<Class<?>, JacksonClassAttribute> result = cacheGlobal.get(key);
-        if (result == null) {
-            result = new HashMap<>();
-            JacksonClassAttribute srcAttribute = generateJsonAttribute(clazz);
-            for (String prop : properties) {
-                copyAttribute(srcAttribute, result, dotSplitter.splitToList(prop));
+        return generateClassLevelJsonAttribute(clazz, FilterSpec.of(properties));
+    }
+
+    public static Map<Class<?>, JacksonClassAttribute> generateClassLevelJsonAttribute(final Class<?> clazz, final FilterSpec spec) {
+        return caches.cacheGlobal.get(new KeyHolder(clazz, spec), new Callable<Map<Class<?>, JacksonClassAttribute>>() {
+            @Override
+            public Map<Class<?>, JacksonClassAttribute> call() {
+                Map<Class<?>, JacksonClassAttribute> result = new HashMap<>();
+                JacksonClassAttribute srcAttribute = generateJsonAttribute(clazz);
+                for (String prop : resolveExclusions(srcAttribute, spec).getPaths()) {
+                    copyAttribute(srcAttribute, result, dotSplitter.splitToList(prop));
+                }
+                return freeze(result);
             }
-            cacheGlobal.put(key, result);
+        });
+    }
+
+    /*
+     * freezes the attributes of a class level map, they only reference each other,
+     * the map itself becomes immutable as well
+     */
+    static Map<Class<?>, JacksonClassAttribute> freeze(Map<Class<?>, JacksonClassAttribute> classLevelJsonAttribute) {
+        for (JacksonClassAttribute attribute : classLevelJsonAttribute.values()) {
+            attribute.freeze();
         }
-        return result;
+        return ImmutableMap.copyOf(classLevelJsonAttribute);
+    }
+
+    /*
+     * returns the class level filter of the root class and properties, the filter is
+     * immutable so one instance is shared by all requests with the same spec
+     */
+    static SimpleBeanPropertyFilter generateClassLevelFilter(Class<?> clazz, FilterSpec spec,
+                                                             Callable<SimpleBeanPropertyFilter> loader) {
+        return caches.filterMap.get(new KeyHolder(clazz, spec), loader);
+    }
+
+    /*
+     * returns the combination of two compiled filters of the root class, keyed by
+     * the identity of what they are compiled from (the class level map or the path trie)
+     */
+    static SimpleBeanPropertyFilter combineFilters(Class<?> clazz, FilterOperation operation, Object first, Object second,
+                                                   Callable<SimpleBeanPropertyFilter> loader) {
+        return caches.combinedFilterMap.get(new CombinedKey(clazz, operation, first, second), loader);
+    }
+
+    /*
+     * returns the FilterSpec of a field selection query, i.e., a,c(a,c(*)),
+     * a repeated query is not parsed again
+     */
+    public static FilterSpec getFieldSelection(final String fields) {
+        return caches.fieldSelectionMap.get(fields, new Callable<FilterSpec>() {
+            @Override
+            public FilterSpec call() {
+                return FieldSelection.parse(fields);
+            }
+        });
+    }
+
+    public static TokenFilter getTokenFilter(final FilterSpec spec) {
+        return caches.tokenFilterMap.get(spec, new Callable<TokenFilter>() {
+            @Override
+            public TokenFilter call() {
+                return NestedPropertyTokenFilter.compile(spec);
+            }
+        });
+    }
+
+    /*
+     * returns the path trie of the nested properties so that a class at two
+     * different paths keeps two different property sets
+     */
+    public static PathTrieNode generatePathTrie(Class<?> clazz, String... properties) {
+        return generatePathTrie(clazz, FilterSpec.of(properties));
+    }
+
+    public static PathTrieNode generatePathTrie(Class<?> clazz, FilterSpec spec) {
+        JacksonClassAttribute srcAttribute = generateJsonAttribute(clazz);
+        return generatePathTrie(srcAttribute, resolveExclusions(srcAttribute, spec));
+    }
+
+    /*
+     * rewrites a spec with exclusions into the include paths it selects on the class,
+     * i.e., ("*", "!c.c.b") on Pojo gives ("a", "b", "c.a", "c.b", "c.c.a"), so exclusions
+     * compile into the same per class structures as includes, properties untouched by
+     * any exclusion stay *, so this is finite on cyclic graphs as well
+     */
+    static FilterSpec resolveExclusions(JacksonClassAttribute src, FilterSpec spec) {
+        if (!spec.hasExclusions()) {
+            return spec;
+        }
+        List<String> paths = new ArrayList<>();
+        resolveExclusions(src, spec, "", paths);
+        return FilterSpec.of(paths.toArray(new String[paths.size()]));
+    }
+
+    private static void resolveExclusions(JacksonClassAttribute src, FilterSpec spec, String prefix, List<String> paths) {
+        Map<String, JacksonClassAttribute> srcAttributes = src.getAttributes();
+        Map<String, FilterSpec> children = spec.children();
+        Set<String> properties = spec.hasAstrix() ? srcAttributes.keySet() : children.keySet();
+        for (String prop : properties) {
+            if (spec.excluded().contains(prop) || !srcAttributes.containsKey(prop)) {
+                continue;
+            }
+            PropertyOptions options = spec.options().get(prop);
+            String path = prefix + prop + (options == null ? "" : options.suffix());
+            JacksonClassAttribute srcNestedAttribute = srcAttributes.get(prop);
+            FilterSpec child = children.get(prop);
+            int size = paths.size();
+            if (child == null) {    // untouched by the exclusions below a *
+                if (srcNestedAttribute != null) {
+                    paths.add(path + "." + FilterSpec.ASTRIX);
+                }
+            } else if (child.hasExclusions() && srcNestedAttribute != null) {
+                resolveExclusions(srcNestedAttribute, child, path + ".", paths);
+            } else {
+                for (String childPath : child.getPaths()) {
+                    if (childPath.charAt(0) != FilterSpec.EXCLUDE) {
+                        paths.add(path + "." + childPath);
+                    }
+                }
+            }
+            if (paths.size() == size) {    // a leaf or every nested property excluded
+                paths.add(path);
+            }
+        }
+    }
+
+    /*
+     * every node is cached per class and (sub) spec, i.e., "a", "c.a" and "b", "c.a"
+     * on the same root share the node compiled for c -> ("a")
+     */
+    private static PathTrieNode generatePathTrie(final JacksonClassAttribute src, final FilterSpec spec) {
+        return caches.cachePathTrie.get(new KeyHolder(src.getClazz(), spec), new Callable<PathTrieNode>() {
+            @Override
+            public PathTrieNode call() {
+                Map<String, JacksonClassAttribute> srcAttributes = src.getAttributes();
+                Set<String> properties = new HashSet<>();
+                Map<String, PathTrieNode> children = new HashMap<>();
+                if (spec.isAstrix()) {
+                    return generateAstrixPathTrie(src, new HashMap<Class<?>, PathTrieNode>());
+                } else {
+                    // next to a * the properties without a path of their own are * as well
+                    Map<String, FilterSpec> specChildren = spec.children();
+                    for (String prop : spec.hasAstrix() ? srcAttributes.keySet() : specChildren.keySet()) {
+                        if (!srcAttributes.containsKey(prop)) {    // validation error?
+                            continue;
+                        }
+                        properties.add(prop);
+                        JacksonClassAttribute srcNestedAttribute = srcAttributes.get(prop);
+                        if (srcNestedAttribute != null) {
+                            FilterSpec childSpec = specChildren.get(prop);
+                            children.put(prop, generatePathTrie(srcNestedAttribute, childSpec != null ? childSpec : ASTRIX_SPEC));
+                        }
+                    }
+                }
+                return PathTrieNode.of(src.getClazz(), properties, spec.options(), children);
+            }
+        });
+    }
+
+    /*
+     * * selects everything below, regardless of the path, so one node per class
+     * is enough, a class reached again points back to its node (cyclic trie)
+     */
+    private static PathTrieNode generateAstrixPathTrie(JacksonClassAttribute src, Map<Class<?>, PathTrieNode> expanded) {
+        Map<String, JacksonClassAttribute> srcAttributes = src.getAttributes();
+        Map<String, PathTrieNode> children = new HashMap<>();
+        PathTrieNode node = PathTrieNode.of(src.getClazz(), srcAttributes.keySet(), children);
+        expanded.put(src.getClazz(), node);
+        for (Map.Entry<String, JacksonClassAttribute> attributeEntry : srcAttributes.entrySet()) {
+            JacksonClassAttribute srcNestedAttribute = attributeEntry.getValue();
+            if (srcNestedAttribute != null) {
+                PathTrieNode child = expanded.get(srcNestedAttribute.getClazz());
+                children.put(attributeEntry.getKey(),
+                        child != null ? child : generateAstrixPathTrie(srcNestedAttribute, expanded));
+            }
+        }
+        return node;
     }
 
     private static void copyAttribute(JacksonClassAttribute src, Map<Class<?>, JacksonClassAttribute> destClassMap, List<String> splitProp) {
@@ -101,9 +542,17 @@ public class JacksonClassAttributeCache {
         copyAttribute(src, dest, splitProp, destClassMap);
     }
 
+    private static void copyAttribute(JacksonClassAttribute src, JacksonClassAttribute dest, List<String> splitProp, Map<Class<?>, JacksonClassAttribute> destClassMap) {
+        copyAttribute(src, dest, splitProp, destClassMap, new HashMap<Class<?>, JacksonClassAttribute>());
+    }
+
     // i starts at 0
     // use validate flag if required to check if it does exist
-    private static void copyAttribute(JacksonClassAttribute src, JacksonClassAttribute dest, List<String> splitProp, Map<Class<?>, JacksonClassAttribute> destClassMap) {
+    // astrixExpanded has the dest attribute per class already expanded by *, a class
+    // reached again (self reference, bidirectional association, diamond) shares that
+    // attribute, so * expands each class once even if the src graph has cycles
+    private static void copyAttribute(JacksonClassAttribute src, JacksonClassAttribute dest, List<String> splitProp,
+                                      Map<Class<?>, JacksonClassAttribute> destClassMap, Map<Class<?>, JacksonClassAttribute> astrixExpanded) {
         // TODO: validate that current root entries: src/dest cannot be null
         for (String prop : splitProp) {
 
@@ -112,20 +561,26 @@ public class JacksonClassAttributeCache {
                 if (src == null) {
                     break;
                 }
+                if (!astrixExpanded.containsKey(src.getClazz())) {
+                    astrixExpanded.put(src.getClazz(), dest);
+                }
 
                 Map<String, JacksonClassAttribute> srcAttributes = src.getAttributes();
                 for (Map.Entry<String, JacksonClassAttribute> attributeEntry : srcAttributes.entrySet()) {
+                    // * has no options, the slice or rule of a path naming the property applies
                     String key = attributeEntry.getKey();
                     JacksonClassAttribute destNestedAttribute = dest.getAttributes().get(key);
                     if (destNestedAttribute == null) {
                         JacksonClassAttribute srcJacksonClassAttribute = attributeEntry.getValue();
                         if (srcJacksonClassAttribute != null) {    // save property with ClassAttribute value
-                            destNestedAttribute = new JacksonClassAttribute(srcJacksonClassAttribute.getClazz());
-                            dest.getAttributes().put(key, destNestedAttribute);
-                            if (destClassMap != null) {
-                                destClassMap.put(attributeEntry.getValue().getClazz(), destNestedAttribute);
+                            destNestedAttribute = astrixExpanded.get(srcJacksonClassAttribute.getClazz());
+                            if (destNestedAttribute != null) {    // already expanded
+                                dest.getAttributes().put(key, destNestedAttribute);
+                                continue;
                             }
-                            copyAttribute(srcJacksonClassAttribute, destNestedAttribute, PROP_ASTRIX, destClassMap);
+                            destNestedAttribute = classAttribute(srcJacksonClassAttribute.getClazz(), destClassMap);
+                            dest.getAttributes().put(key, destNestedAttribute);
+                            copyAttribute(srcJacksonClassAttribute, destNestedAttribute, PROP_ASTRIX, destClassMap, astrixExpanded);
                         } else {    // save property with null value
                             dest.getAttributes().put(key, null);    // null
                         }
@@ -135,6 +590,9 @@ public class JacksonClassAttributeCache {
                 }
                 break;
             } else {
+                // items[0:50]?NON_EMPTY is property items with a slice and an inclusion rule
+                PropertyOptions propertyOptions = PropertyOptions.parse(prop);
+                prop = PropertyOptions.propertyName(prop);
                 boolean inSrc = src.getAttributes().containsKey(prop);
                 if (!inSrc) {    // validation error?
                     return;
@@ -144,13 +602,11 @@ public class JacksonClassAttributeCache {
                 // copy the value from src attribute map to dest based on value type
                 JacksonClassAttribute srcNestedAttribute = src.getAttributes().get(prop);
                 JacksonClassAttribute destNestedAttribute = dest.getAttributes().get(prop);
+                dest.mergeOptions(prop, propertyOptions);
                 if (destNestedAttribute == null) {
                     if (srcNestedAttribute != null) {    // save property with ClassAttribute value
-                        destNestedAttribute = new JacksonClassAttribute(srcNestedAttribute.getClazz());
+                        destNestedAttribute = classAttribute(srcNestedAttribute.getClazz(), destClassMap);
                         dest.getAttributes().put(prop, destNestedAttribute);
-                        if (destClassMap != null) {
-                            destClassMap.put(srcNestedAttribute.getClazz(), destNestedAttribute);
-                        }
                     } else {    // save property with null value
                         dest.getAttributes().put(prop, null);    // null
                     }
@@ -167,15 +623,36 @@ public class JacksonClassAttributeCache {
     }
 
 
-    static class KeyHolder {
+    // a class level map keeps one attribute per class, a class reached through two
+    // properties (order.billing, order.shipping) gets the union of both property sets
+    // instead of the last path winning
+    private static JacksonClassAttribute classAttribute(Class<?> clazz, Map<Class<?>, JacksonClassAttribute> destClassMap) {
+        JacksonClassAttribute attribute = destClassMap == null ? null : destClassMap.get(clazz);
+        if (attribute == null) {
+            attribute = new JacksonClassAttribute(clazz);
+            if (destClassMap != null) {
+                destClassMap.put(clazz, attribute);
+            }
+        }
+        return attribute;
+    }
+
+    static class KeyHolder implements ClassScopedKey {
 
         private final Class<?> clazz;
 
-        private final String[] properties;
+        private final FilterSpec spec;
+
+        private final int hash;
 
         public KeyHolder(Class<?> clazz, String[] properties) {
+            this(clazz, FilterSpec.of(properties));
+        }
+
+        public KeyHolder(Class<?> clazz, FilterSpec spec) {
             this.clazz = clazz;
-            this.properties = properties;
+            this.spec = spec;
+            this.hash = 31 * clazz.hashCode() + spec.hashCode();
         }
 
         @Override
@@ -186,28 +663,74 @@ public class JacksonClassAttributeCache {
 
             KeyHolder keyHolder = (KeyHolder) o;
 
-            return new EqualsBuilder()
-                    .append(clazz, keyHolder.clazz)
-                    .append(properties, keyHolder.properties)
-                    .isEquals();
+            return hash == keyHolder.hash && clazz == keyHolder.clazz && spec.equals(keyHolder.spec);
         }
 
         @Override
         public int hashCode() {
-            return new HashCodeBuilder(17, 37)
-                    .append(clazz)
-                    .append(properties)
-                    .toHashCode();
+            return hash;
+        }
+
+        @Override
+        public Class<?> getClazz() {
+            return clazz;
         }
 
         @Override
         public String toString() {
             final StringBuffer sb = new StringBuffer("KeyHolder{");
             sb.append("clazz=").append(clazz);
-            sb.append(", properties=").append(properties == null ? "null" : Arrays.asList(properties).toString());
+            sb.append(", spec=").append(spec);
             sb.append('}');
             return sb.toString();
         }
     }
 
+    /*
+     * operands are compared by identity, they are immutable compiled metadata
+     */
+    static final class CombinedKey implements ClassScopedKey {
+
+        private final Class<?> clazz;
+
+        private final FilterOperation operation;
+
+        private final Object first;
+
+        private final Object second;
+
+        CombinedKey(Class<?> clazz, FilterOperation operation, Object first, Object second) {
+            this.clazz = clazz;
+            this.operation = operation;
+            this.first = first;
+            this.second = second;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+
+            if (o == null || getClass() != o.getClass()) return false;
+
+            CombinedKey that = (CombinedKey) o;
+
+            return operation == that.operation && first == that.first && second == that.second;
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * (31 * operation.hashCode() + System.identityHashCode(first)) + System.identityHashCode(second);
+        }
+
+        @Override
+        public Class<?> getClazz() {
+            return clazz;
+        }
+
+        @Override
+        public String toString() {
+            return "CombinedKey{clazz=" + clazz + ", operation=" + operation + '}';
+        }
+    }
+
 }
@@ -0,0 +1,61 @@
+package rk.prod.jackson;
+
+import java.util.Map;
+
+/**
+ * LazyJacksonClassAttribute introspects its class the first time its attributes
+ * are read, nested attributes are lazy as well, so only the classes a filter
+ * path (or *) actually reaches get introspected
+ * <p>
+ * There is one LazyJacksonClassAttribute per class (see JacksonClassAttributeCache),
+ * later specs reuse and extend the already resolved part of the tree
+ */
+public class LazyJacksonClassAttribute extends JacksonClassAttribute {
+
+    private volatile boolean resolved;
+
+    public LazyJacksonClassAttribute(Class<?> clazz) {
+        super(clazz);
+    }
+
+    public boolean isResolved() {
+        return resolved;
+    }
+
+    @Override
+    public Map<String, JacksonClassAttribute> getAttributes() {
+        if (!resolved) {
+            resolve();
+        }
+        return super.getAttributes();
+    }
+
+    private synchronized void resolve() {
+        if (resolved) {
+            return;
+        }
+        long start = NestedFilterMetrics.ENABLED ? System.nanoTime() : 0;
+        Map<String, JacksonClassAttribute> attributes = super.getAttributes();
+        try {
+            for (Map.Entry<String, Class<?>> property : JacksonAttributeBuilder.getProperties(
+                    JacksonClassAttributeCache.getSerializationConfig(), getClazz()).entrySet()) {
+                attributes.put(property.getKey(), property.getValue() == null ? null
+                        : JacksonClassAttributeCache.getLazyJsonAttribute(property.getValue()));
+            }
+        } catch (RuntimeException e) {
+            attributes.clear();
+            throw e;
+        }
+        freeze();
+        resolved = true;
+        if (NestedFilterMetrics.ENABLED) {
+            NestedFilterMetrics.metadataBuilt(getClazz(), System.nanoTime() - start);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return resolved ? super.toString() : "JacksonClassAttribute [class=" + getClazz() + ", unresolved]";
+    }
+
+}
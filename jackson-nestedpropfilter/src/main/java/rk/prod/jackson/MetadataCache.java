@@ -0,0 +1,41 @@
+package rk.prod.jackson;
+
+import java.util.Set;
+import java.util.concurrent.Callable;
+
+/**
+ * MetadataCache is the storage behind JacksonClassAttributeCache, one instance
+ * per kind of metadata (root entity attributes, class attributes, filters per spec ...)
+ * <p>
+ * Implementations decide on bounds, eviction and how keys are referenced, see
+ * MetadataCacheFactory
+ */
+public interface MetadataCache<K, V> {
+
+    /*
+     * returns the cached value or null, counts as a hit or a miss
+     */
+    V get(K key);
+
+    /*
+     * returns the cached value, loading it on a miss, the load time is recorded,
+     * concurrent callers for the same key wait for a single load
+     */
+    V get(K key, Callable<V> loader);
+
+    void put(K key, V value);
+
+    void invalidate(K key);
+
+    void invalidateAll();
+
+    /*
+     * snapshot of the keys currently cached
+     */
+    Set<K> keys();
+
+    long size();
+
+    MetadataCacheStats stats();
+
+}
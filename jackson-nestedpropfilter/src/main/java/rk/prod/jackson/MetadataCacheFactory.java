@@ -0,0 +1,25 @@
+package rk.prod.jackson;
+
+/**
+ * MetadataCacheFactory creates the caches used by JacksonClassAttributeCache,
+ * set a custom one through JacksonClassAttributeCache.setCacheFactory
+ */
+public interface MetadataCacheFactory {
+
+    /*
+     * cache keyed by class, should not keep classes (and their class loader) reachable
+     */
+    <V> MetadataCache<Class<?>, V> newClassCache(String name);
+
+    /*
+     * cache keyed by filter specs, i.e., per request dynamic properties, should be bounded
+     */
+    <K, V> MetadataCache<K, V> newSpecCache(String name);
+
+    /*
+     * cache keyed by filter specs of a class, its values reference the class as well,
+     * should be bounded and not keep the class loader reachable
+     */
+    <K extends ClassScopedKey, V> MetadataCache<K, V> newClassScopedCache(String name);
+
+}
@@ -0,0 +1,66 @@
+package rk.prod.jackson;
+
+/**
+ * Immutable snapshot of the counters of a MetadataCache
+ */
+public class MetadataCacheStats {
+
+    private final long hitCount;
+
+    private final long missCount;
+
+    private final long evictionCount;
+
+    private final long loadCount;
+
+    private final long totalLoadTimeNanos;
+
+    private final long size;
+
+    public MetadataCacheStats(long hitCount, long missCount, long evictionCount, long loadCount,
+                              long totalLoadTimeNanos, long size) {
+        this.hitCount = hitCount;
+        this.missCount = missCount;
+        this.evictionCount = evictionCount;
+        this.loadCount = loadCount;
+        this.totalLoadTimeNanos = totalLoadTimeNanos;
+        this.size = size;
+    }
+
+    public long getHitCount() {
+        return hitCount;
+    }
+
+    public long getMissCount() {
+        return missCount;
+    }
+
+    public double getHitRate() {
+        long requests = hitCount + missCount;
+        return requests == 0 ? 1.0 : (double) hitCount / requests;
+    }
+
+    public long getEvictionCount() {
+        return evictionCount;
+    }
+
+    public long getLoadCount() {
+        return loadCount;
+    }
+
+    public long getTotalLoadTimeNanos() {
+        return totalLoadTimeNanos;
+    }
+
+    public long getSize() {
+        return size;
+    }
+
+    @Override
+    public String toString() {
+        return "MetadataCacheStats{hitCount=" + hitCount + ", missCount=" + missCount
+                + ", evictionCount=" + evictionCount + ", loadCount=" + loadCount
+                + ", totalLoadTimeNanos=" + totalLoadTimeNanos + ", size=" + size + '}';
+    }
+
+}
@@ -0,0 +1,147 @@
+package rk.prod.jackson;
+
+import com.fasterxml.jackson.annotation.JsonFilter;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.JarURLConnection;
+import java.net.URL;
+import java.net.URLConnection;
+import java.net.URLDecoder;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Enumeration;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+
+/**
+ * MetadataWarmUp preloads the JacksonClassAttributeCache for root entities
+ * at startup, in parallel, so the first filtered request does not pay for
+ * the introspection, i.e.,
+ * <p>
+ * System.out.println(MetadataWarmUp.warmUp("com.your.vo"));
+ */
+public class MetadataWarmUp {
+
+    private static final String CLASS_SUFFIX = ".class";
+
+    /*
+     * preloads every @JsonFilter annotated class found in the packages (and sub packages)
+     */
+    public static WarmUpReport warmUp(String... packages) {
+        ForkJoinPool pool = new ForkJoinPool();
+        try {
+            return warmUp(pool, findJsonFilterClasses(Thread.currentThread().getContextClassLoader(), packages));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    public static WarmUpReport warmUp(ForkJoinPool pool, Collection<Class<?>> classes) {
+        long start = System.nanoTime();
+        List<Class<?>> classList = new ArrayList<>(classes);
+        List<Callable<Long>> tasks = new ArrayList<>(classList.size());
+        for (final Class<?> clazz : classList) {
+            tasks.add(new Callable<Long>() {
+                @Override
+                public Long call() {
+                    long classStart = System.nanoTime();
+                    JacksonClassAttributeCache.preload(clazz);
+                    return System.nanoTime() - classStart;
+                }
+            });
+        }
+
+        Map<Class<?>, Long> nanosPerClass = new LinkedHashMap<>();
+        Map<Class<?>, Throwable> failures = new LinkedHashMap<>();
+        List<Future<Long>> results = pool.invokeAll(tasks);
+        for (int i = 0; i < results.size(); i++) {
+            try {
+                nanosPerClass.put(classList.get(i), results.get(i).get());
+            } catch (ExecutionException e) {
+                failures.put(classList.get(i), e.getCause());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                failures.put(classList.get(i), e);
+            }
+        }
+        return new WarmUpReport(nanosPerClass, failures, System.nanoTime() - start);
+    }
+
+    /*
+     * classes annotated with @JsonFilter in the packages, from directories and jars
+     */
+    public static Set<Class<?>> findJsonFilterClasses(ClassLoader classLoader, String... packages) {
+        Set<Class<?>> classes = new LinkedHashSet<>();
+        for (String packageName : packages) {
+            String path = packageName.replace('.', '/');
+            try {
+                Enumeration<URL> resources = classLoader.getResources(path);
+                while (resources.hasMoreElements()) {
+                    URL resource = resources.nextElement();
+                    Set<String> classNames = new LinkedHashSet<>();
+                    if ("file".equals(resource.getProtocol())) {
+                        findClassNames(new File(URLDecoder.decode(resource.getPath(), "UTF-8")), packageName, classNames);
+                    } else {
+                        URLConnection connection = resource.openConnection();
+                        if (connection instanceof JarURLConnection) {
+                            findClassNames(((JarURLConnection) connection).getJarFile(), path, classNames);
+                        }
+                    }
+                    for (String className : classNames) {
+                        addIfJsonFilter(classLoader, className, classes);
+                    }
+                }
+            } catch (IOException e) {
+                throw new RuntimeException("could not scan package " + packageName, e);
+            }
+        }
+        return classes;
+    }
+
+    private static void findClassNames(File directory, String packageName, Set<String> classNames) {
+        File[] files = directory.listFiles();
+        if (files == null) {
+            return;
+        }
+        for (File file : files) {
+            String name = file.getName();
+            if (file.isDirectory()) {
+                findClassNames(file, packageName + '.' + name, classNames);
+            } else if (name.endsWith(CLASS_SUFFIX)) {
+                classNames.add(packageName + '.' + name.substring(0, name.length() - CLASS_SUFFIX.length()));
+            }
+        }
+    }
+
+    private static void findClassNames(JarFile jarFile, String path, Set<String> classNames) {
+        Enumeration<JarEntry> entries = jarFile.entries();
+        while (entries.hasMoreElements()) {
+            String name = entries.nextElement().getName();
+            if (name.startsWith(path + '/') && name.endsWith(CLASS_SUFFIX)) {
+                classNames.add(name.substring(0, name.length() - CLASS_SUFFIX.length()).replace('/', '.'));
+            }
+        }
+    }
+
+    private static void addIfJsonFilter(ClassLoader classLoader, String className, Set<Class<?>> classes) {
+        try {
+            Class<?> clazz = Class.forName(className, false, classLoader);
+            if (clazz.isAnnotationPresent(JsonFilter.class)) {
+                classes.add(clazz);
+            }
+        } catch (ClassNotFoundException | LinkageError e) {
+            // not loadable in this class loader, nothing to warm up
+        }
+    }
+
+}
@@ -1,6 +1,7 @@
 package rk.prod.jackson;
 
 import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonStreamContext;
 import com.fasterxml.jackson.databind.SerializerProvider;
 import com.fasterxml.jackson.databind.ser.PropertyWriter;
 import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
@@ -8,6 +9,7 @@ import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.concurrent.Callable;
 
 /**
  * NestedBeanPropertyFilter contains all property filters per class
@@ -20,10 +22,134 @@ import java.util.Map.Entry;
 public class NestedBeanPropertyFilter extends SimpleBeanPropertyFilter {
 
     public static SimpleBeanPropertyFilter filterOutAllExcept(Class<?> clazz, String... propertyArray) {
-        return new NestedBeanPropertyFilter(clazz, propertyArray);
+        return filterOutAllExcept(clazz, FilterSpec.of(propertyArray));
     }
 
-    private Map<Class<?>, SimpleBeanPropertyFilter> classLevelBeanPropertyFilter = new HashMap<>();
+    /*
+     * filters are immutable, the same root class and spec return the same cached filter
+     *
+     * the filter is class level, a class reached through several paths (order.billing and
+     * order.shipping both being an Address) gets the union of the properties of all those
+     * paths, whatever their order, use filterOutAllExceptByPath for a property set per path
+     */
+    public static SimpleBeanPropertyFilter filterOutAllExcept(final Class<?> clazz, final FilterSpec spec) {
+        return JacksonClassAttributeCache.generateClassLevelFilter(clazz, spec, new Callable<SimpleBeanPropertyFilter>() {
+            @Override
+            public SimpleBeanPropertyFilter call() {
+                return new NestedBeanPropertyFilter(clazz, spec);
+            }
+        });
+    }
+
+    /**
+     * Same as filterOutAllExcept but with the properties given as a field selection
+     * query, i.e., "a,c(a,c(*))" for "a", "c.a", "c.c.*", see FieldSelection
+     * <p>
+     * a repeated query returns the cached filter without parsing or building anything
+     */
+    public static SimpleBeanPropertyFilter filterOutAllExceptFields(Class<?> clazz, String fields) {
+        return filterOutAllExcept(clazz, JacksonClassAttributeCache.getFieldSelection(fields));
+    }
+
+    /**
+     * Serializes every property except the given nested ones, i.e., "secret", "c.c.b",
+     * same as filterOutAllExcept(clazz, "*", "!secret", "!c.c.b"), excluded and included
+     * paths can be mixed in filterOutAllExcept as well
+     * <p>
+     * As with includes, a class level filter keeps one property set per class, a property
+     * excluded at one path but reached through another path of the same class is kept,
+     * use serializeAllExceptByPath to exclude per path
+     */
+    public static SimpleBeanPropertyFilter serializeAllExcept(Class<?> clazz, String... propertyArray) {
+        return filterOutAllExcept(clazz, FilterSpec.allExcept(propertyArray));
+    }
+
+    public static SimpleBeanPropertyFilter serializeAllExceptByPath(Class<?> clazz, String... propertyArray) {
+        return filterOutAllExceptByPath(clazz, FilterSpec.allExcept(propertyArray));
+    }
+
+    /**
+     * Same properties as filterOutAllExcept but filtered per path instead of per class
+     * i.e., order.billing and order.shipping keep their own property sets even if both are
+     * of the same class, the current path is taken from the JsonGenerator output context
+     */
+    public static SimpleBeanPropertyFilter filterOutAllExceptByPath(Class<?> clazz, String... propertyArray) {
+        return filterOutAllExceptByPath(clazz, FilterSpec.of(propertyArray));
+    }
+
+    public static SimpleBeanPropertyFilter filterOutAllExceptByPath(Class<?> clazz, FilterSpec spec) {
+        return new NestedBeanPropertyFilter(clazz, JacksonClassAttributeCache.generatePathTrie(clazz, spec));
+    }
+
+    public static SimpleBeanPropertyFilter filterOutAllExceptFieldsByPath(Class<?> clazz, String fields) {
+        return filterOutAllExceptByPath(clazz, JacksonClassAttributeCache.getFieldSelection(fields));
+    }
+
+    /**
+     * Properties selected by either filter, i.e., the fields of the API view plus those of the
+     * caller's role, see FilterOperation for how nested properties and slices are combined
+     * <p>
+     * Both filters must have the same root class and be both class level or both path aware,
+     * the result is cached by the identity of the operands, combining the same (cached) filters
+     * again costs one lookup, results can be combined further
+     */
+    public static SimpleBeanPropertyFilter union(SimpleBeanPropertyFilter first, SimpleBeanPropertyFilter second) {
+        return combine(FilterOperation.UNION, first, second);
+    }
+
+    /*
+     * properties selected by both filters
+     */
+    public static SimpleBeanPropertyFilter intersect(SimpleBeanPropertyFilter first, SimpleBeanPropertyFilter second) {
+        return combine(FilterOperation.INTERSECT, first, second);
+    }
+
+    /*
+     * properties of first not selected by second, i.e., minus a tenant redaction filter
+     */
+    public static SimpleBeanPropertyFilter minus(SimpleBeanPropertyFilter first, SimpleBeanPropertyFilter second) {
+        return combine(FilterOperation.MINUS, first, second);
+    }
+
+    private static SimpleBeanPropertyFilter combine(final FilterOperation operation, SimpleBeanPropertyFilter first,
+                                                    SimpleBeanPropertyFilter second) {
+        if (!(first instanceof NestedBeanPropertyFilter) || !(second instanceof NestedBeanPropertyFilter)) {
+            throw new IllegalArgumentException("only NestedBeanPropertyFilters can be combined");
+        }
+        final NestedBeanPropertyFilter firstFilter = (NestedBeanPropertyFilter) first;
+        final NestedBeanPropertyFilter secondFilter = (NestedBeanPropertyFilter) second;
+        if (firstFilter.rootClass != secondFilter.rootClass || firstFilter.isPathAware() != secondFilter.isPathAware()) {
+            throw new IllegalArgumentException("can not combine " + firstFilter + " with " + secondFilter);
+        }
+        return JacksonClassAttributeCache.combineFilters(firstFilter.rootClass, operation, firstFilter.compiled(),
+                secondFilter.compiled(), new Callable<SimpleBeanPropertyFilter>() {
+                    @Override
+                    public SimpleBeanPropertyFilter call() {
+                        if (firstFilter.isPathAware()) {
+                            return new NestedBeanPropertyFilter(firstFilter.rootClass,
+                                    operation.apply(firstFilter.pathTrie, secondFilter.pathTrie));
+                        }
+                        return new NestedBeanPropertyFilter(firstFilter.rootClass,
+                                operation.apply(firstFilter.classLevelJsonAttribute, secondFilter.classLevelJsonAttribute));
+                    }
+                });
+    }
+
+    private final Class<?> rootClass;
+
+    // the class level attributes the filters below are compiled from, kept to combine filters
+    private final Map<Class<?>, JacksonClassAttribute> classLevelJsonAttribute;
+
+    private final Map<Class<?>, SimpleBeanPropertyFilter> classLevelBeanPropertyFilter = new HashMap<>();
+
+    // the filter per runtime class, proxies and subclasses get the filter of the configured type
+    private final TypeDispatch<SimpleBeanPropertyFilter> dispatch = new TypeDispatch<>(classLevelBeanPropertyFilter);
+
+    // only set for path aware filters, classLevelBeanPropertyFilter is then empty
+    private final PathTrieNode pathTrie;
+
+    // only set while NestedFilterMetrics are enabled
+    private final NestedFilterMetrics.FieldCounters counters;
 
     /**
      * Construct filter based on many nested properties as follows
@@ -31,32 +157,146 @@ public class NestedBeanPropertyFilter extends SimpleBeanPropertyFilter {
      *
      * @param properties
      */
-    private NestedBeanPropertyFilter(Class<?> clazz, final String... properties) {
+    private NestedBeanPropertyFilter(Class<?> clazz, FilterSpec properties) {
+        this(clazz, JacksonClassAttributeCache.generateClassLevelJsonAttribute(clazz, properties));
+    }
 
-        Map<Class<?>, JacksonClassAttribute> classLevelJsonAttribute = JacksonClassAttributeCache.generateClassLevelJsonAttribute(
-                clazz, properties);
+    private NestedBeanPropertyFilter(Class<?> clazz, Map<Class<?>, JacksonClassAttribute> classLevelJsonAttribute) {
+        this.rootClass = clazz;
+        this.classLevelJsonAttribute = classLevelJsonAttribute;
+        this.pathTrie = null;
+        this.counters = NestedFilterMetrics.ENABLED ? NestedFilterMetrics.filterCreated(this, clazz) : null;
 
         for (Entry<Class<?>, JacksonClassAttribute> entry : classLevelJsonAttribute.entrySet()) {
-            classLevelBeanPropertyFilter.put(entry.getKey(), SimpleBeanPropertyFilter.filterOutAllExcept(entry.getValue().getAttributes().keySet()));
+            classLevelBeanPropertyFilter.put(entry.getKey(), IndexedPropertyFilter.of(entry.getValue(), counters));
         }
     }
 
+    private NestedBeanPropertyFilter(Class<?> clazz, PathTrieNode pathTrie) {
+        this.rootClass = clazz;
+        this.classLevelJsonAttribute = null;
+        this.pathTrie = pathTrie;
+        this.counters = NestedFilterMetrics.ENABLED ? NestedFilterMetrics.filterCreated(this, clazz) : null;
+    }
+
+    /*
+     * included and excluded field counts of this filter, null unless NestedFilterMetrics are enabled
+     */
+    public NestedFilterMetrics.FieldCounters getCounters() {
+        return counters;
+    }
+
+    public boolean isPathAware() {
+        return pathTrie != null;
+    }
+
+    // path aware filters are created per call but share the cached trie
+    private Object compiled() {
+        return pathTrie != null ? pathTrie : classLevelJsonAttribute;
+    }
+
+    /*
+     * NestedPropertyFilterProvider asks for the filter once per object, a path aware filter
+     * returns a filter of its own for the object that resolves the trie node on the first field
+     */
     public SimpleBeanPropertyFilter findPropertyFilter(Class<?> clazz) {
-        return classLevelBeanPropertyFilter.get(clazz);
+        if (pathTrie != null) {
+            // the path, not the class decides, see serializeAsField
+            return new ObjectFilter(this);
+        }
+        return dispatch.get(clazz);
     }
 
-    // TODO: eventually check what is the jgen.context immediate parent
-    // for this class, a class can only have unique property names
-    // so there is no chance of collision
-    // i.e., two properties one ClassA obj1, ClassA obj2, here obj1, obj2
-    // are different names, this can be delayed based on the whether
-    // there are multiple propertyFilters for the same class to then filter
-    // by the size() of the map > 1
+    // class level filters pick the property filter by (runtime) class, so
+    // two properties ClassA obj1, ClassA obj2 share one property set,
+    // path aware filters (filterOutAllExceptByPath) instead carry the
+    // trie node of a nested property down to its object (PathTrieCursor),
+    // a class can only have unique property names so there is no chance of collision
     @Override
     public void serializeAsField(Object pojo, JsonGenerator jgen, SerializerProvider provider, PropertyWriter writer)
             throws Exception {
-        SimpleBeanPropertyFilter propertyFilter = classLevelBeanPropertyFilter.get(pojo.getClass());
-        propertyFilter.serializeAsField(pojo, jgen, provider, writer);
+        if (pathTrie != null) {
+            new ObjectFilter(this).serializeAsField(pojo, jgen, provider, writer);
+            return;
+        }
+        SimpleBeanPropertyFilter propertyFilter = dispatch.get(pojo.getClass());
+        if (propertyFilter != null) {
+            propertyFilter.serializeAsField(pojo, jgen, provider, writer);
+        } else if (!jgen.canOmitFields()) {    // not reachable through the filter paths, like a path aware filter
+            writer.serializeAsOmittedField(pojo, jgen, provider);
+        }
+    }
+
+    /*
+     * the filter of one object written through a path aware filter, the trie node of the
+     * object is resolved on the first field, the node of an included nested property is on
+     * top of the cursor while its value is written
+     */
+    private static final class ObjectFilter extends SimpleBeanPropertyFilter {
+
+        private final NestedBeanPropertyFilter owner;
+
+        private PathTrieCursor cursor;
+
+        private JsonStreamContext context;
+
+        private PathTrieNode node;
+
+        private IndexedPropertyFilter filter;
+
+        private PathTrieNode[] children;
+
+        ObjectFilter(NestedBeanPropertyFilter owner) {
+            this.owner = owner;
+        }
+
+        @Override
+        public void serializeAsField(Object pojo, JsonGenerator jgen, SerializerProvider provider, PropertyWriter writer)
+                throws Exception {
+            if (cursor == null) {
+                cursor = PathTrieCursor.of(provider, owner.pathTrie);
+                context = jgen.getOutputContext();
+                node = cursor.resolve(context);
+                if (node != null) {
+                    filter = node.getFilter();
+                    children = node.childTable();
+                }
+            }
+            // trie nodes are shared between filters, so the decision is taken (and counted) here
+            if (node == null) {
+                if (NestedFilterMetrics.ENABLED) {
+                    owner.counters.record(false);
+                }
+                return;
+            }
+            int i = filter.indexOf(writer);
+            boolean include = filter.include(i);
+            if (NestedFilterMetrics.ENABLED) {
+                owner.counters.record(include);
+            }
+            if (!include) {
+                if (!jgen.canOmitFields()) {
+                    writer.serializeAsOmittedField(pojo, jgen, provider);
+                }
+                return;
+            }
+            PathTrieNode child = children[i];
+            if (child == null) {
+                filter.serializeIncluded(pojo, jgen, provider, writer, i);
+                return;
+            }
+            cursor.push(context, child);
+            try {
+                filter.serializeIncluded(pojo, jgen, provider, writer, i);
+            } finally {
+                cursor.pop();
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "NestedBeanPropertyFilter [rootClass=" + rootClass.getName() + ", pathAware=" + isPathAware() + "]";
     }
 
 }
@@ -0,0 +1,255 @@
+package rk.prod.jackson;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.Collections;
+import java.util.List;
+import java.util.ServiceLoader;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * NestedFilterMetrics counts metadata builds, filters and per field include decisions
+ * <p>
+ * Metrics are off unless the JVM is started with -Drk.prod.jackson.metrics=true,
+ * ENABLED is a constant so the JIT drops every disabled metrics branch and the
+ * hot path costs nothing; when enabled the counters are striped and the MXBean
+ * rk.prod.jackson:type=NestedFilterMetrics is registered
+ */
+public final class NestedFilterMetrics {
+
+    public static final String ENABLED_PROPERTY = "rk.prod.jackson.metrics";
+
+    public static final boolean ENABLED = Boolean.getBoolean(ENABLED_PROPERTY);
+
+    public static final String OBJECT_NAME = "rk.prod.jackson:type=NestedFilterMetrics";
+
+    private static final StripedCounter metadataBuilds = new StripedCounter();
+
+    private static final StripedCounter metadataBuildNanos = new StripedCounter();
+
+    private static final StripedCounter filtersCreated = new StripedCounter();
+
+    private static final StripedCounter defaultFilterFallbacks = new StripedCounter();
+
+    private static final FieldCounters allFields = new FieldCounters(null);
+
+    // weak, a filter dropped from the filter cache and no longer referenced is not live
+    private static final Set<NestedBeanPropertyFilter> liveFilters = Collections.synchronizedSet(
+            Collections.newSetFromMap(new WeakHashMap<NestedBeanPropertyFilter, Boolean>()));
+
+    private static final List<NestedFilterMetricsListener> listeners = new CopyOnWriteArrayList<>();
+
+    static {
+        if (ENABLED) {
+            for (NestedFilterMetricsListener listener : ServiceLoader.load(NestedFilterMetricsListener.class)) {
+                listeners.add(listener);
+            }
+            registerMBean();
+        }
+    }
+
+    private NestedFilterMetrics() {
+    }
+
+    /**
+     * included and excluded field counts of one filter, every count is added
+     * to the totals of all filters as well
+     */
+    public static final class FieldCounters {
+
+        private final FieldCounters total;
+
+        private final StripedCounter included = new StripedCounter();
+
+        private final StripedCounter excluded = new StripedCounter();
+
+        private FieldCounters(FieldCounters total) {
+            this.total = total;
+        }
+
+        void record(boolean include) {
+            (include ? included : excluded).increment();
+            if (total != null) {
+                total.record(include);
+            }
+        }
+
+        public long getIncluded() {
+            return included.sum();
+        }
+
+        public long getExcluded() {
+            return excluded.sum();
+        }
+
+        void reset() {
+            included.reset();
+            excluded.reset();
+        }
+
+        @Override
+        public String toString() {
+            return "FieldCounters [included=" + included + ", excluded=" + excluded + "]";
+        }
+    }
+
+    public static void addListener(NestedFilterMetricsListener listener) {
+        listeners.add(listener);
+    }
+
+    public static void removeListener(NestedFilterMetricsListener listener) {
+        listeners.remove(listener);
+    }
+
+    /*
+     * registers the MXBean, already done at startup when metrics are enabled
+     */
+    public static synchronized void registerMBean() {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName(OBJECT_NAME);
+            if (!server.isRegistered(name)) {
+                server.registerMBean(new MXBean(), name);
+            }
+        } catch (JMException e) {
+            throw new IllegalStateException("could not register " + OBJECT_NAME, e);
+        }
+    }
+
+    // the recorders below are only called while ENABLED
+
+    static void metadataBuilt(Class<?> clazz, long nanos) {
+        metadataBuilds.increment();
+        metadataBuildNanos.add(nanos);
+        for (NestedFilterMetricsListener listener : listeners) {
+            listener.metadataBuilt(clazz, nanos);
+        }
+    }
+
+    static FieldCounters filterCreated(NestedBeanPropertyFilter filter, Class<?> rootClass) {
+        filtersCreated.increment();
+        liveFilters.add(filter);
+        for (NestedFilterMetricsListener listener : listeners) {
+            listener.filterCreated(rootClass);
+        }
+        return new FieldCounters(allFields);
+    }
+
+    static void defaultFilterFallback(Object filterId, Class<?> clazz) {
+        defaultFilterFallbacks.increment();
+        for (NestedFilterMetricsListener listener : listeners) {
+            listener.defaultFilterFallback(filterId, clazz);
+        }
+    }
+
+    public static long getMetadataBuildCount() {
+        return metadataBuilds.sum();
+    }
+
+    public static long getMetadataBuildTimeNanos() {
+        return metadataBuildNanos.sum();
+    }
+
+    public static long getFiltersCreated() {
+        return filtersCreated.sum();
+    }
+
+    public static int getLiveFilterCount() {
+        return liveFilters.size();
+    }
+
+    public static long getIncludedFieldCount() {
+        return allFields.getIncluded();
+    }
+
+    public static long getExcludedFieldCount() {
+        return allFields.getExcluded();
+    }
+
+    public static long getDefaultFilterFallbackCount() {
+        return defaultFilterFallbacks.sum();
+    }
+
+    /*
+     * resets the counters, live filters and per filter counts are kept
+     */
+    public static void reset() {
+        metadataBuilds.reset();
+        metadataBuildNanos.reset();
+        filtersCreated.reset();
+        defaultFilterFallbacks.reset();
+        allFields.reset();
+    }
+
+    private static final class MXBean implements NestedFilterMetricsMXBean {
+
+        private static MetadataCacheStats stats(String cache) {
+            return JacksonClassAttributeCache.stats().get(cache);
+        }
+
+        @Override
+        public long getMetadataBuildCount() {
+            return NestedFilterMetrics.getMetadataBuildCount();
+        }
+
+        @Override
+        public long getMetadataBuildTimeNanos() {
+            return NestedFilterMetrics.getMetadataBuildTimeNanos();
+        }
+
+        @Override
+        public long getCacheGlobalSize() {
+            return stats("cacheGlobal").getSize();
+        }
+
+        @Override
+        public double getCacheGlobalHitRate() {
+            return stats("cacheGlobal").getHitRate();
+        }
+
+        @Override
+        public long getFilterCacheSize() {
+            return stats("filterMap").getSize();
+        }
+
+        @Override
+        public double getFilterCacheHitRate() {
+            return stats("filterMap").getHitRate();
+        }
+
+        @Override
+        public long getFiltersCreated() {
+            return NestedFilterMetrics.getFiltersCreated();
+        }
+
+        @Override
+        public int getLiveFilterCount() {
+            return NestedFilterMetrics.getLiveFilterCount();
+        }
+
+        @Override
+        public long getIncludedFieldCount() {
+            return NestedFilterMetrics.getIncludedFieldCount();
+        }
+
+        @Override
+        public long getExcludedFieldCount() {
+            return NestedFilterMetrics.getExcludedFieldCount();
+        }
+
+        @Override
+        public long getDefaultFilterFallbackCount() {
+            return NestedFilterMetrics.getDefaultFilterFallbackCount();
+        }
+
+        @Override
+        public void reset() {
+            NestedFilterMetrics.reset();
+        }
+    }
+
+}
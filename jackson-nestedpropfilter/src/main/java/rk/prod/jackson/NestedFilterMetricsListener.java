@@ -0,0 +1,28 @@
+package rk.prod.jackson;
+
+/**
+ * NestedFilterMetricsListener gets the rare events of the metrics, i.e., to feed
+ * them into an application metrics registry, per field decisions are only counted
+ * <p>
+ * Listeners are added through NestedFilterMetrics.addListener or listed in
+ * META-INF/services/rk.prod.jackson.NestedFilterMetricsListener, they are only
+ * called while metrics are enabled
+ */
+public interface NestedFilterMetricsListener {
+
+    /*
+     * the properties of a class (eager: the whole root entity graph) were introspected
+     */
+    void metadataBuilt(Class<?> clazz, long nanos);
+
+    /*
+     * a NestedBeanPropertyFilter was compiled for the root class
+     */
+    void filterCreated(Class<?> rootClass);
+
+    /*
+     * NestedPropertyFilterProvider found no filter for the class and used the default filter
+     */
+    void defaultFilterFallback(Object filterId, Class<?> clazz);
+
+}
@@ -0,0 +1,32 @@
+package rk.prod.jackson;
+
+/**
+ * JMX view of NestedFilterMetrics, registered as rk.prod.jackson:type=NestedFilterMetrics
+ */
+public interface NestedFilterMetricsMXBean {
+
+    long getMetadataBuildCount();
+
+    long getMetadataBuildTimeNanos();
+
+    long getCacheGlobalSize();
+
+    double getCacheGlobalHitRate();
+
+    long getFilterCacheSize();
+
+    double getFilterCacheHitRate();
+
+    long getFiltersCreated();
+
+    int getLiveFilterCount();
+
+    long getIncludedFieldCount();
+
+    long getExcludedFieldCount();
+
+    long getDefaultFilterFallbackCount();
+
+    void reset();
+
+}
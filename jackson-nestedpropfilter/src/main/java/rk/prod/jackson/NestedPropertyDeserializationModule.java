@@ -0,0 +1,40 @@
+package rk.prod.jackson;
+
+import com.fasterxml.jackson.databind.module.SimpleModule;
+
+import java.util.Arrays;
+
+/**
+ * NestedPropertyDeserializationModule binds only the nested properties of a root
+ * class, everything else in the input is skipped by the parser without being
+ * materialized, i.e., for partial updates reading a few fields out of large documents
+ * <p>
+ * Like NestedPropertyFilterModule the properties are applied per class when Jackson
+ * builds the deserializers, so a class reached through two paths binds the union of
+ * both property sets, register one module per ObjectMapper and keep that mapper for
+ * the given properties, i.e.,
+ * <p>
+ * ObjectMapper patchMapper = new ObjectMapper()
+ * .registerModule(new NestedPropertyDeserializationModule(YourVO.class, "prop1", "prop1.prop2"));
+ */
+public class NestedPropertyDeserializationModule extends SimpleModule {
+
+    private static final long serialVersionUID = 1L;
+
+    private final JacksonClassAttributeCache.KeyHolder key;
+
+    public NestedPropertyDeserializationModule(Class<?> clazz, String... properties) {
+        super("NestedPropertyDeserializationModule");
+        this.key = new JacksonClassAttributeCache.KeyHolder(clazz, properties);
+        setDeserializerModifier(new PrunedBeanDeserializerModifier(
+                JacksonClassAttributeCache.generateClassLevelJsonAttribute(clazz, properties)));
+    }
+
+    // one registration per root class and properties, next to the
+    // NestedPropertyFilterModule of the same properties
+    @Override
+    public Object getTypeId() {
+        return Arrays.asList(getClass(), key);
+    }
+
+}
@@ -0,0 +1,41 @@
+package rk.prod.jackson;
+
+import com.fasterxml.jackson.databind.module.SimpleModule;
+
+/**
+ * NestedPropertyFilterModule is the compiled alternative to NestedPropertyFilterProvider,
+ * the nested properties are applied once when Jackson builds the serializers instead of
+ * on every field, no @JsonFilter, mixin or FilterProvider is required
+ * <p>
+ * As Jackson caches serializers per class, register one module per ObjectMapper
+ * (or ObjectMapper.copy()) and keep that mapper for the given properties, i.e.,
+ * <p>
+ * ObjectMapper yourVOMapper = new ObjectMapper()
+ * .registerModule(new NestedPropertyFilterModule(YourVO.class, "prop1", "prop1.prop2"));
+ * <p>
+ * To serve many property sets from one ObjectMapper use PrunedWriterCache
+ */
+public class NestedPropertyFilterModule extends SimpleModule {
+
+    private static final long serialVersionUID = 1L;
+
+    private final JacksonClassAttributeCache.KeyHolder key;
+
+    public NestedPropertyFilterModule(Class<?> clazz, String... properties) {
+        this(clazz, FilterSpec.of(properties));
+    }
+
+    public NestedPropertyFilterModule(Class<?> clazz, FilterSpec spec) {
+        super("NestedPropertyFilterModule");
+        this.key = new JacksonClassAttributeCache.KeyHolder(clazz, spec);
+        setSerializerModifier(new PrunedBeanSerializerModifier(
+                JacksonClassAttributeCache.generateClassLevelJsonAttribute(clazz, spec)));
+    }
+
+    // one registration per root class and properties
+    @Override
+    public Object getTypeId() {
+        return key;
+    }
+
+}
@@ -19,10 +19,13 @@ public class NestedPropertyFilterProvider extends SimpleFilterProvider {
 
         if (filter instanceof NestedBeanPropertyFilter) {
 
-            // get filter for class
+            // get filter for the runtime class, proxies and subclasses resolve to the configured type
             filter = ((NestedBeanPropertyFilter) filter).findPropertyFilter(valueToFilter.getClass());
 
             if (filter == null) {
+                if (NestedFilterMetrics.ENABLED) {
+                    NestedFilterMetrics.defaultFilterFallback(filterId, valueToFilter.getClass());
+                }
                 filter = _defaultFilter;
                 if (filter == null && _cfgFailOnUnknownId) {
                     throw new IllegalArgumentException("No filter configured with id '" + filterId + "' (type "
@@ -0,0 +1,140 @@
+package rk.prod.jackson;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.filter.FilteringParserDelegate;
+import com.fasterxml.jackson.core.filter.TokenFilter;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * NestedPropertyTokenFilter applies the nested properties of a FilterSpec to
+ * already serialized JSON, no POJO is created and memory use does not depend
+ * on the size of the document, i.e., with a, c.a, c.c.*
+ * <p>
+ * {"a":1,"b":2,"c":{"a":3,"b":4,"c":{"a":5,"b":6}}}  becomes  {"a":1,"c":{"a":3,"c":{"a":5,"b":6}}}
+ * <p>
+ * As in NestedBeanPropertyFilter array elements do not add a path segment, a
+ * selected property without nested paths is copied as is, a slice (items[0:50])
+ * keeps the elements of the slice of an array (inclusion rules like ?NON_NULL are
+ * ignored, they need the values) and an object left
+ * without any selected property is dropped along with its property name
+ */
+public class NestedPropertyTokenFilter extends TokenFilter {
+
+    // null values are excluded properties
+    private final Map<String, TokenFilter> children;
+
+    // filter of the properties not in children, INCLUDE_ALL below a * with exclusions
+    private final TokenFilter others;
+
+    private NestedPropertyTokenFilter(Map<String, TokenFilter> children, TokenFilter others) {
+        this.children = children;
+        this.others = others;
+    }
+
+    public static TokenFilter of(String... properties) {
+        return of(FilterSpec.of(properties));
+    }
+
+    /*
+     * the token filter of a spec is compiled once and cached, see JacksonClassAttributeCache.getTokenFilter
+     */
+    public static TokenFilter of(FilterSpec spec) {
+        return JacksonClassAttributeCache.getTokenFilter(spec);
+    }
+
+    // sub filters are compiled up front so includeProperty does not allocate
+    static TokenFilter compile(FilterSpec spec) {
+        if (spec.isAstrix()) {
+            return TokenFilter.INCLUDE_ALL;
+        }
+        Map<String, TokenFilter> children = new HashMap<>();
+        for (Map.Entry<String, FilterSpec> entry : spec.children().entrySet()) {
+            if (entry.getKey().equals(FilterSpec.ASTRIX)) {
+                continue;
+            }
+            FilterSpec childSpec = entry.getValue();
+            TokenFilter child = childSpec.isEmpty() ? TokenFilter.INCLUDE_ALL : of(childSpec);
+            // inclusion rules need the values, tokens are copied without them, only slices apply
+            PropertyOptions options = spec.options().get(entry.getKey());
+            children.put(entry.getKey(), options == null || options.getSlice() == null
+                    ? child : new SlicedTokenFilter(child, options.getSlice()));
+        }
+        for (String excluded : spec.excluded()) {
+            children.put(excluded, null);
+        }
+        return new NestedPropertyTokenFilter(children, spec.hasAstrix() ? TokenFilter.INCLUDE_ALL : null);
+    }
+
+    /**
+     * Copies the JSON of in to out keeping only the properties of the spec,
+     * multiple root level values (i.e., line delimited JSON) are filtered one by one
+     */
+    public static void filter(JsonFactory factory, InputStream in, OutputStream out, FilterSpec spec) throws IOException {
+        JsonParser parser = new FilteringParserDelegate(factory.createParser(in), of(spec), true, true);
+        JsonGenerator generator = factory.createGenerator(out);
+        try {
+            while (parser.nextToken() != null) {
+                generator.copyCurrentEvent(parser);
+            }
+        } finally {
+            generator.close();
+            parser.close();
+        }
+    }
+
+    @Override
+    public TokenFilter includeProperty(String name) {
+        TokenFilter child = children.get(name);
+        return child != null || children.containsKey(name) ? child : others;
+    }
+
+    // array elements are filtered like the array property itself
+    @Override
+    public TokenFilter includeElement(int index) {
+        return this;
+    }
+
+    @Override
+    public String toString() {
+        return "NestedPropertyTokenFilter " + children.keySet();
+    }
+
+    /*
+     * keeps the elements of the slice of an array property, anything
+     * else is filtered by the filter of the property
+     */
+    private static final class SlicedTokenFilter extends TokenFilter {
+
+        private final TokenFilter property;
+
+        private final PropertySlice slice;
+
+        SlicedTokenFilter(TokenFilter property, PropertySlice slice) {
+            this.property = property;
+            this.slice = slice;
+        }
+
+        @Override
+        public TokenFilter filterStartObject() {
+            return property;
+        }
+
+        @Override
+        public TokenFilter includeElement(int index) {
+            return index >= slice.getFrom() && index < slice.getTo() ? property : null;
+        }
+
+        @Override
+        public String toString() {
+            return slice + " " + property;
+        }
+    }
+
+}
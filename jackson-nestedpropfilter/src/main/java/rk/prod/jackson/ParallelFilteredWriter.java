@@ -0,0 +1,192 @@
+package rk.prod.jackson;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * ParallelFilteredWriter writes a large root collection or array as one JSON array, split into
+ * chunks serialized on a ForkJoinPool into pooled buffers (ChunkBuffer) and copied to the output
+ * stream in order, i.e., for a bulk export
+ * <p>
+ * registry.parallelWriter("orderSummary").writeValues(response.getOutputStream(), orders)
+ * <p>
+ * The writer is the one of the elements (FilteredWriterRegistry.writer), filters are immutable once
+ * built and are shared by all workers, a path aware filter sees every element at the path it has
+ * in the single threaded output. At most twice the parallelism of the pool chunks are serialized
+ * ahead of the one being copied, so memory does not grow with the size of the collection
+ * <p>
+ * The output is compact, INDENT_OUTPUT of the writer is ignored, collections not larger than one
+ * chunk are written on the calling thread
+ */
+public class ParallelFilteredWriter {
+
+    public static final int DEFAULT_CHUNK_SIZE = 1024;
+
+    private final ObjectWriter writer;
+
+    private final ForkJoinPool pool;
+
+    private final int chunkSize;
+
+    // chunks serialized ahead of the one being copied
+    private final int window;
+
+    public ParallelFilteredWriter(ObjectWriter writer) {
+        this(writer, DefaultPool.POOL, DEFAULT_CHUNK_SIZE);
+    }
+
+    public ParallelFilteredWriter(ObjectWriter writer, ForkJoinPool pool, int chunkSize) {
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("chunkSize must be positive: " + chunkSize);
+        }
+        this.writer = writer.without(SerializationFeature.INDENT_OUTPUT)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        this.pool = pool;
+        this.chunkSize = chunkSize;
+        this.window = 2 * pool.getParallelism();
+    }
+
+    /*
+     * writes the values as a JSON array, out is flushed but not closed
+     */
+    public void writeValues(OutputStream out, Collection<?> values) throws IOException {
+        write(out, values instanceof List && values instanceof RandomAccess
+                ? (List<?>) values : Arrays.asList(values.toArray()));
+    }
+
+    public void writeValues(OutputStream out, Object[] values) throws IOException {
+        write(out, Arrays.asList(values));
+    }
+
+    public byte[] writeValuesAsBytes(Collection<?> values) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        writeValues(out, values);
+        return out.toByteArray();
+    }
+
+    private void write(OutputStream out, List<?> values) throws IOException {
+        int chunks = (values.size() + chunkSize - 1) / chunkSize;
+        if (chunks <= 1) {
+            JsonGenerator generator = createGenerator(out);
+            writeChunk(generator, values);
+            generator.close();
+            out.flush();
+            return;
+        }
+        Deque<ChunkTask> pending = new ArrayDeque<>();
+        int submitted = 0;
+        try {
+            out.write('[');
+            for (int chunk = 0; chunk < chunks; chunk++) {
+                while (submitted < chunks && pending.size() < window) {
+                    int from = submitted++ * chunkSize;
+                    ChunkTask task = new ChunkTask(values.subList(from, Math.min(from + chunkSize, values.size())));
+                    pool.execute(task);
+                    pending.add(task);
+                }
+                ChunkBuffer buffer = join(pending.poll());
+                try {
+                    if (chunk > 0) {
+                        out.write(',');
+                    }
+                    // the elements of the chunk without its [ and ]
+                    buffer.writeTo(out, 1, buffer.size() - 1);
+                } finally {
+                    buffer.release();
+                }
+            }
+            out.write(']');
+            out.flush();
+        } finally {
+            // only left after a failure
+            for (ChunkTask task : pending) {
+                if (!task.cancel(false) && task.isCompletedNormally()) {
+                    task.getRawResult().release();
+                }
+            }
+        }
+    }
+
+    private JsonGenerator createGenerator(OutputStream out) throws IOException {
+        JsonGenerator generator = writer.getFactory().createGenerator(out, JsonEncoding.UTF8);
+        generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        return generator;
+    }
+
+    private void writeChunk(JsonGenerator generator, List<?> values) throws IOException {
+        generator.writeStartArray();
+        for (Object value : values) {
+            writer.writeValue(generator, value);
+        }
+        generator.writeEndArray();
+    }
+
+    // the IOException of the chunk, ForkJoinTask.join only throws unchecked exceptions
+    private static ChunkBuffer join(ChunkTask task) throws IOException {
+        try {
+            return task.join();
+        } catch (RuntimeException e) {
+            for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+                if (cause instanceof IOException) {
+                    throw (IOException) cause;
+                }
+            }
+            throw e;
+        }
+    }
+
+    private final class ChunkTask extends RecursiveTask<ChunkBuffer> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final List<?> values;
+
+        ChunkTask(List<?> values) {
+            this.values = values;
+        }
+
+        @Override
+        protected ChunkBuffer compute() {
+            ChunkBuffer buffer = new ChunkBuffer();
+            try {
+                JsonGenerator generator = createGenerator(buffer);
+                writeChunk(generator, values);
+                generator.close();
+                return buffer;
+            } catch (IOException e) {
+                buffer.release();
+                throw new ChunkException(e);
+            }
+        }
+    }
+
+    private static final class ChunkException extends RuntimeException {
+
+        private static final long serialVersionUID = 1L;
+
+        ChunkException(IOException cause) {
+            super(cause);
+        }
+    }
+
+    // created on first use, Java 7 has no common pool
+    private static final class DefaultPool {
+
+        static final ForkJoinPool POOL = new ForkJoinPool();
+    }
+
+}
@@ -0,0 +1,84 @@
+package rk.prod.jackson;
+
+import com.fasterxml.jackson.core.JsonStreamContext;
+import com.fasterxml.jackson.databind.SerializerProvider;
+
+import java.util.Arrays;
+
+/**
+ * PathTrieCursor carries the trie nodes of the nested objects being written down one
+ * serialization call, the node is pushed with the context of the object holding the
+ * property, so a nested object finds its node by comparing its parent context instead
+ * of walking the contexts up to the root (PathTrieNode.resolve)
+ * <p>
+ * The node is resolved once per object, see NestedBeanPropertyFilter.ObjectFilter, objects
+ * written without going through the filter (a class without @JsonFilter on the way) do not
+ * match the top of the cursor and are resolved the long way
+ * <p>
+ * One cursor per call and trie, kept as a per call attribute of the SerializerProvider
+ */
+final class PathTrieCursor {
+
+    private final PathTrieNode root;
+
+    // per property being written, the context of the object holding it and the node of its value
+    private JsonStreamContext[] contexts = new JsonStreamContext[8];
+
+    private PathTrieNode[] nodes = new PathTrieNode[8];
+
+    private int depth;
+
+    private PathTrieCursor(PathTrieNode root) {
+        this.root = root;
+    }
+
+    static PathTrieCursor of(SerializerProvider provider, PathTrieNode root) {
+        PathTrieCursor cursor = (PathTrieCursor) provider.getAttribute(root);
+        if (cursor == null) {
+            cursor = new PathTrieCursor(root);
+            provider.setAttribute(root, cursor);
+        }
+        return cursor;
+    }
+
+    /*
+     * the node of the object written in the context, null if it is not reachable
+     * through the compiled paths
+     */
+    PathTrieNode resolve(JsonStreamContext objectContext) {
+        JsonStreamContext parent = objectContext.getParent();
+        if (depth > 0) {
+            // the value of the property on top or an element of it, checked without the map test
+            JsonStreamContext holder = contexts[depth - 1];
+            if (parent == holder || parent.inArray() && parent.getParent() == holder) {
+                return nodes[depth - 1];
+            }
+        }
+        parent = PathTrieNode.parentObject(objectContext);
+        if (parent == null || parent.inRoot()) {
+            return root;
+        }
+        if (depth > 0 && contexts[depth - 1] == parent) {
+            return nodes[depth - 1];
+        }
+        return root.resolve(objectContext);
+    }
+
+    /*
+     * the node of the property of the object written in the context, written next
+     */
+    void push(JsonStreamContext context, PathTrieNode node) {
+        if (depth == nodes.length) {
+            contexts = Arrays.copyOf(contexts, depth * 2);
+            nodes = Arrays.copyOf(nodes, depth * 2);
+        }
+        contexts[depth] = context;
+        nodes[depth] = node;
+        depth++;
+    }
+
+    void pop() {
+        depth--;
+    }
+
+}
@@ -0,0 +1,125 @@
+package rk.prod.jackson;
+
+import com.fasterxml.jackson.core.JsonStreamContext;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * PathTrieNode is an immutable node of the property path trie compiled from the
+ * FilterSpec of a root entity, i.e., the properties a, c.a, c.c.* on a root entity become
+ * <p>
+ * root {a, c}
+ * c    {a, c}
+ * c.c  {a, b}
+ * <p>
+ * Unlike the class level filter map, a class showing up at two paths
+ * (order.billing and order.shipping both being an Address) gets one node per path,
+ * nodes of the same class and sub spec are shared (see JacksonClassAttributeCache.generatePathTrie)
+ */
+public class PathTrieNode {
+
+    private final IndexedPropertyFilter filter;
+
+    private final Map<String, PathTrieNode> children;
+
+    // children by the property index of the filter, built on first use, see childTable()
+    private volatile PathTrieNode[] childTable;
+
+    private PathTrieNode(IndexedPropertyFilter filter, Map<String, PathTrieNode> children) {
+        this.filter = filter;
+        this.children = children;
+    }
+
+    /*
+     * children is kept as is, it may still be filled in until the node is published
+     * (see JacksonClassAttributeCache.generateAstrixPathTrie)
+     */
+    public static PathTrieNode of(Class<?> clazz, Collection<String> properties, Map<String, PathTrieNode> children) {
+        return of(clazz, properties, Collections.<String, PropertyOptions>emptyMap(), children);
+    }
+
+    public static PathTrieNode of(Class<?> clazz, Collection<String> properties, Map<String, PropertyOptions> options,
+                                  Map<String, PathTrieNode> children) {
+        return of(JacksonClassAttributeCache.getPropertyIndex(clazz), properties, options, children);
+    }
+
+    static PathTrieNode of(PropertyIndex index, Collection<String> properties, Map<String, PropertyOptions> options,
+                           Map<String, PathTrieNode> children) {
+        return new PathTrieNode(new IndexedPropertyFilter(index, properties, options, null), children);
+    }
+
+    public IndexedPropertyFilter getFilter() {
+        return filter;
+    }
+
+    public PathTrieNode child(String property) {
+        return children.get(property);
+    }
+
+    /*
+     * the children by the property index of the filter, null where a property has none, the
+     * table is built once the node is in use as the children map may still be filled in until
+     * the node is published
+     */
+    PathTrieNode[] childTable() {
+        PathTrieNode[] table = childTable;
+        if (table == null) {
+            PropertyIndex propertyIndex = filter.getPropertyIndex();
+            table = new PathTrieNode[propertyIndex.size()];
+            for (int i = 0; i < table.length; i++) {
+                table[i] = children.get(propertyIndex.nameOf(i));
+            }
+            childTable = table;
+        }
+        return table;
+    }
+
+    /*
+     * follows the generator write context of the object currently being written
+     * up to the root and back down the trie, one child lookup per nested object,
+     * array contexts (collection elements) and map contexts (the name is a map key,
+     * not a property) do not add a path segment
+     *
+     * returns null if the object is not reachable through the compiled paths
+     */
+    public PathTrieNode resolve(JsonStreamContext objectContext) {
+        JsonStreamContext parent = parentObject(objectContext);
+        if (parent == null || parent.inRoot()) {
+            return this;
+        }
+        PathTrieNode parentNode = resolve(parent);
+        return parentNode == null ? null : parentNode.child(parent.getCurrentName());
+    }
+
+    /*
+     * the context of the object holding the property the object of the context is written for,
+     * MapSerializer sets the map as the current value of its context
+     */
+    static JsonStreamContext parentObject(JsonStreamContext objectContext) {
+        JsonStreamContext parent = objectContext.getParent();
+        while (parent != null && (parent.inArray() || isMap(parent.getCurrentValue()))) {
+            parent = parent.getParent();
+        }
+        return parent;
+    }
+
+    // instanceof Map is an interface check, slow for the many bean classes passing by, so it is kept per class
+    private static final ClassValue<Boolean> MAP_TYPES = new ClassValue<Boolean>() {
+        @Override
+        protected Boolean computeValue(Class<?> type) {
+            return Map.class.isAssignableFrom(type);
+        }
+    };
+
+    private static boolean isMap(Object value) {
+        return value != null && MAP_TYPES.get(value.getClass());
+    }
+
+    @Override
+    public String toString() {
+        return "PathTrieNode [filter=" + filter + ", children=" + children.keySet() + "]";
+    }
+
+}
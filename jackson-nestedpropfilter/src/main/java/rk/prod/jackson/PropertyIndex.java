@@ -0,0 +1,102 @@
+package rk.prod.jackson;
+
+import com.fasterxml.jackson.databind.ser.PropertyWriter;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * PropertyIndex assigns every property of a class a fixed index so that
+ * a per class property filter can be a bit mask instead of a set of names
+ * <p>
+ * Jackson property writers carry no index of their own, so the index of a
+ * writer is looked up by its name in an open addressing table built with the
+ * index, the table is immutable and only holds the names of the class, the
+ * lookup does not allocate and the hash of the name is cached by the string,
+ * the names are interned so the name of a writer usually matches by identity
+ */
+public class PropertyIndex {
+
+    private final String[] names;
+
+    // open addressing table of the names, load factor at most one half
+    private final String[] slots;
+
+    private final int[] slotIndexes;
+
+    private final int slotMask;
+
+    public PropertyIndex(Collection<String> properties) {
+        this.names = properties.toArray(new String[properties.size()]);
+        Arrays.sort(this.names);
+        int capacity = 2;
+        while (capacity < names.length * 2) {
+            capacity <<= 1;
+        }
+        this.slots = new String[capacity];
+        this.slotIndexes = new int[capacity];
+        this.slotMask = capacity - 1;
+        for (int i = 0; i < names.length; i++) {
+            names[i] = names[i].intern();
+            int slot = slot(names[i]);
+            while (slots[slot] != null) {
+                slot = (slot + 1) & slotMask;
+            }
+            slots[slot] = names[i];
+            slotIndexes[slot] = i;
+        }
+    }
+
+    private int slot(String property) {
+        int hash = property.hashCode();
+        return (hash ^ (hash >>> 16)) & slotMask;
+    }
+
+    public int size() {
+        return names.length;
+    }
+
+    /*
+     * returns the index of the property or -1 if the class has no such property
+     */
+    public int indexOf(String property) {
+        if (property == null) {
+            return -1;
+        }
+        int slot = slot(property);
+        String key;
+        while ((key = slots[slot]) != null) {
+            if (key == property || key.equals(property)) {
+                return slotIndexes[slot];
+            }
+            slot = (slot + 1) & slotMask;
+        }
+        return -1;
+    }
+
+    public String nameOf(int index) {
+        return names[index];
+    }
+
+    public int indexOf(PropertyWriter writer) {
+        return indexOf(writer.getName());
+    }
+
+    public long[] newMask() {
+        return new long[(names.length + 63) >>> 6];
+    }
+
+    public static void set(long[] mask, int index) {
+        mask[index >>> 6] |= 1L << index;
+    }
+
+    public static boolean isSet(long[] mask, int index) {
+        return index >= 0 && (mask[index >>> 6] & (1L << index)) != 0;
+    }
+
+    @Override
+    public String toString() {
+        return "PropertyIndex [names=" + Arrays.toString(names) + "]";
+    }
+
+}
@@ -0,0 +1,261 @@
+package rk.prod.jackson;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.BeanPropertyWriter;
+import com.fasterxml.jackson.databind.ser.PropertyWriter;
+
+import java.lang.reflect.Array;
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * PropertyOptions are the per property settings of a filter path besides the
+ * property being included, i.e., the slice of items[0:50] and the inclusion
+ * rule of address?NON_NULL or items[0:50]?NON_EMPTY
+ * <p>
+ * NON_NULL      omits null
+ * NON_EMPTY     omits null and empty strings, collections, maps and arrays
+ * NON_DEFAULT   omits null, empty and the default of primitives (0, false, '\0')
+ * <p>
+ * NON_DEFAULT is the default of the value type, not of the property in a new
+ * bean, enums and other types have no default and are written unless null
+ * <p>
+ * A rule is checked before the property is written and comes on top of its
+ * @JsonInclude, a value passing the rule is left to the writer of the property,
+ * which still applies its own @JsonInclude and null serializer
+ * <p>
+ * A property reached through several paths gets the union of their options,
+ * NONE (a plain path) wins over any limit, the less strict rule wins
+ */
+public final class PropertyOptions {
+
+    public static final char INCLUSION = '?';
+
+    public static final PropertyOptions NONE = new PropertyOptions(null, null);
+
+    private final PropertySlice slice;
+
+    // null is always
+    private final JsonInclude.Include inclusion;
+
+    private PropertyOptions(PropertySlice slice, JsonInclude.Include inclusion) {
+        this.slice = slice;
+        this.inclusion = inclusion;
+    }
+
+    public static PropertyOptions of(PropertySlice slice) {
+        return of(slice, null);
+    }
+
+    /*
+     * inclusion is NON_NULL, NON_EMPTY, NON_DEFAULT or null (always)
+     */
+    public static PropertyOptions of(PropertySlice slice, JsonInclude.Include inclusion) {
+        if (inclusion == JsonInclude.Include.ALWAYS) {
+            inclusion = null;
+        } else if (inclusion != null && strictness(inclusion) == 0) {
+            throw new IllegalArgumentException("unsupported inclusion " + inclusion
+                    + ", expected NON_NULL, NON_EMPTY or NON_DEFAULT");
+        }
+        return slice == null && inclusion == null ? NONE : new PropertyOptions(slice, inclusion);
+    }
+
+    /*
+     * the options of a path segment, i.e., items[0:50]?NON_EMPTY
+     */
+    public static PropertyOptions parse(String segment) {
+        int question = segment.indexOf(INCLUSION);
+        if (question < 0) {
+            return of(PropertySlice.parse(segment));
+        }
+        String rule = segment.substring(question + 1).trim().toUpperCase();
+        JsonInclude.Include inclusion = null;
+        for (JsonInclude.Include include : JsonInclude.Include.values()) {
+            if (include.name().equals(rule) && strictness(include) > 0) {
+                inclusion = include;
+            }
+        }
+        String property = segment.substring(0, question).trim();
+        if (inclusion == null || property.isEmpty() || property.equals(FilterSpec.ASTRIX)) {
+            throw new IllegalArgumentException("invalid inclusion, expected name?NON_NULL, name?NON_EMPTY or "
+                    + "name?NON_DEFAULT but was " + segment);
+        }
+        return of(PropertySlice.parse(property), inclusion);
+    }
+
+    /*
+     * the property name of a path segment without its options, items[0:50]?NON_EMPTY -> items
+     */
+    public static String propertyName(String segment) {
+        int question = segment.indexOf(INCLUSION);
+        return PropertySlice.propertyName(question < 0 ? segment : segment.substring(0, question).trim());
+    }
+
+    /*
+     * canonical form of a path segment, " items[ :10]?non_empty" -> items[0:10]?NON_EMPTY
+     */
+    public static String canonical(String segment) {
+        PropertyOptions options = parse(segment);
+        if (options.isNone()) {
+            return segment;
+        }
+        return propertyName(segment) + options.suffix();
+    }
+
+    /*
+     * the options as written after the property name of a path segment, [0:50]?NON_EMPTY
+     */
+    public String suffix() {
+        return (slice == null ? "" : slice.toString()) + (inclusion == null ? "" : INCLUSION + inclusion.name());
+    }
+
+    public static PropertyOptions union(PropertyOptions first, PropertyOptions second) {
+        if (first == null) {
+            return second;
+        }
+        if (second == null) {
+            return first;
+        }
+        return of(PropertySlice.union(first.slice, second.slice),
+                strictness(first.inclusion) <= strictness(second.inclusion) ? first.inclusion : second.inclusion);
+    }
+
+    public static PropertyOptions intersect(PropertyOptions first, PropertyOptions second) {
+        if (first == null) {
+            return second;
+        }
+        if (second == null) {
+            return first;
+        }
+        return of(PropertySlice.intersect(first.slice, second.slice),
+                strictness(first.inclusion) >= strictness(second.inclusion) ? first.inclusion : second.inclusion);
+    }
+
+    // 0 writes every value, the stricter the rule the more values it omits
+    private static int strictness(JsonInclude.Include inclusion) {
+        if (inclusion == null) {
+            return 0;
+        }
+        switch (inclusion) {
+            case NON_NULL:
+                return 1;
+            case NON_EMPTY:
+                return 2;
+            case NON_DEFAULT:
+                return 3;
+            default:
+                return 0;
+        }
+    }
+
+    public PropertySlice getSlice() {
+        return slice;
+    }
+
+    /*
+     * the inclusion rule, null if every value is written
+     */
+    public JsonInclude.Include getInclusion() {
+        return inclusion;
+    }
+
+    public boolean isNone() {
+        return slice == null && inclusion == null;
+    }
+
+    /*
+     * true if the inclusion rule writes the value
+     */
+    public boolean includes(Object value) {
+        if (inclusion == null) {
+            return true;
+        }
+        if (value == null) {
+            return false;
+        }
+        if (inclusion == JsonInclude.Include.NON_NULL) {
+            return true;
+        }
+        return !isEmpty(value) && (inclusion != JsonInclude.Include.NON_DEFAULT || !isDefault(value));
+    }
+
+    // class checks first, the interface checks are slow for the common scalar values
+    private static boolean isEmpty(Object value) {
+        if (value instanceof String) {
+            return ((String) value).isEmpty();
+        }
+        if (value instanceof Number || value instanceof Boolean || value instanceof Character) {
+            return false;
+        }
+        if (value instanceof Collection) {
+            return ((Collection<?>) value).isEmpty();
+        }
+        if (value instanceof Map) {
+            return ((Map<?, ?>) value).isEmpty();
+        }
+        if (value instanceof CharSequence) {
+            return ((CharSequence) value).length() == 0;
+        }
+        return value.getClass().isArray() && Array.getLength(value) == 0;
+    }
+
+    private static boolean isDefault(Object value) {
+        if (value instanceof Boolean) {
+            return !(Boolean) value;
+        }
+        if (value instanceof Integer || value instanceof Long || value instanceof Short || value instanceof Byte) {
+            return ((Number) value).longValue() == 0;
+        }
+        if (value instanceof Double || value instanceof Float) {
+            return ((Number) value).doubleValue() == 0;
+        }
+        return value instanceof Character && (Character) value == '\0';
+    }
+
+    /*
+     * writes an included property according to the options, the value is read once through
+     * a SlicedBeanPropertyWriter (IndexedPropertyFilter keeps one per property instead of
+     * copying the writer per call), writers of another type read it again to write it
+     */
+    public void serializeAsField(Object pojo, JsonGenerator jgen, SerializerProvider provider, PropertyWriter writer)
+            throws Exception {
+        if (writer instanceof BeanPropertyWriter) {
+            BeanPropertyWriter beanWriter = (BeanPropertyWriter) writer;
+            if (SlicedBeanPropertyWriter.canCopy(beanWriter)) {
+                new SlicedBeanPropertyWriter(beanWriter, this).serializeAsField(pojo, jgen, provider);
+                return;
+            }
+            if (serializeValue(pojo, beanWriter.get(pojo), jgen, provider, beanWriter)) {
+                return;
+            }
+        }
+        writer.serializeAsField(pojo, jgen, provider);
+    }
+
+    /*
+     * omits the value of the property or writes its slice, returns false if it is left to the writer
+     */
+    boolean serializeValue(Object pojo, Object value, JsonGenerator jgen, SerializerProvider provider,
+                           BeanPropertyWriter writer) throws Exception {
+        if (!includes(value)) {
+            if (!jgen.canOmitFields()) {
+                writer.serializeAsOmittedField(pojo, jgen, provider);
+            }
+            return true;
+        }
+        if (slice != null && value != null && PropertySlice.isSliceable(value)) {
+            jgen.writeFieldName(writer.getSerializedName());
+            slice.serialize(value, jgen, provider, writer);
+            return true;
+        }
+        return false;
+    }
+
+    @Override
+    public String toString() {
+        return "PropertyOptions [slice=" + slice + ", inclusion=" + inclusion + "]";
+    }
+
+}
@@ -0,0 +1,223 @@
+package rk.prod.jackson;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.jsontype.TypeSerializer;
+import com.fasterxml.jackson.databind.ser.BeanPropertyWriter;
+
+import java.io.IOException;
+import java.lang.reflect.Array;
+import java.util.Iterator;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * PropertySlice limits a collection (or array) property to the elements
+ * [from, to) of a path segment, i.e., items[0:50], tags[:10] or history[5:]
+ * <p>
+ * The elements are written straight from the backing collection, nothing is copied
+ * and the elements after the slice are never touched, maps and other values are
+ * written as they are
+ */
+public final class PropertySlice {
+
+    public static final int UNBOUNDED = Integer.MAX_VALUE;
+
+    private final int from;
+
+    private final int to;
+
+    private PropertySlice(int from, int to) {
+        this.from = from;
+        this.to = to;
+    }
+
+    public static PropertySlice of(int from, int to) {
+        if (from < 0 || to < from) {
+            throw new IllegalArgumentException("invalid slice [" + from + ":" + to + "]");
+        }
+        return new PropertySlice(from, to);
+    }
+
+    /*
+     * the property name of a path segment without its slice, items[0:50] -> items
+     */
+    public static String propertyName(String segment) {
+        int bracket = segment.indexOf('[');
+        return bracket < 0 ? segment : segment.substring(0, bracket).trim();
+    }
+
+    /*
+     * the slice of a path segment, null if the segment has none
+     */
+    public static PropertySlice parse(String segment) {
+        int bracket = segment.indexOf('[');
+        if (bracket < 0) {
+            return null;
+        }
+        int colon = segment.indexOf(':', bracket);
+        if (colon < 0 || !segment.endsWith("]") || bracket == 0) {
+            throw new IllegalArgumentException("invalid slice, expected name[from:to] but was " + segment);
+        }
+        try {
+            String from = segment.substring(bracket + 1, colon).trim();
+            String to = segment.substring(colon + 1, segment.length() - 1).trim();
+            return of(from.isEmpty() ? 0 : Integer.parseInt(from), to.isEmpty() ? UNBOUNDED : Integer.parseInt(to));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("invalid slice, expected name[from:to] but was " + segment, e);
+        }
+    }
+
+    /*
+     * canonical form of a path segment, " items[ :10]" -> items[0:10]
+     */
+    public static String canonical(String segment) {
+        PropertySlice slice = parse(segment);
+        return slice == null ? segment : propertyName(segment) + slice;
+    }
+
+    /*
+     * the smallest slice containing both, null (no limit) if either has no limit
+     */
+    public static PropertySlice union(PropertySlice first, PropertySlice second) {
+        if (first == null || second == null) {
+            return null;
+        }
+        return of(Math.min(first.from, second.from), Math.max(first.to, second.to));
+    }
+
+    /*
+     * the elements in both slices, null (no limit) if neither has a limit,
+     * disjoint slices give an empty one
+     */
+    public static PropertySlice intersect(PropertySlice first, PropertySlice second) {
+        if (first == null) {
+            return second;
+        }
+        if (second == null) {
+            return first;
+        }
+        int from = Math.max(first.from, second.from);
+        return of(from, Math.max(from, Math.min(first.to, second.to)));
+    }
+
+    public int getFrom() {
+        return from;
+    }
+
+    public int getTo() {
+        return to;
+    }
+
+    public static boolean isSliceable(Object value) {
+        return value instanceof Iterable || value.getClass().isArray();
+    }
+
+    /*
+     * writes the elements of the slice as a json array, value has to be sliceable, the
+     * elements are written the way the collection serializer of the property would, with
+     * its @JsonSerialize(contentUsing) and the type information of the element type
+     */
+    public void serialize(Object value, JsonGenerator jgen, SerializerProvider provider, BeanPropertyWriter writer)
+            throws IOException {
+        ElementWriter elements = new ElementWriter(provider, writer);
+        jgen.writeStartArray();
+        if (value instanceof List && value instanceof RandomAccess) {
+            List<?> list = (List<?>) value;
+            for (int i = from, end = Math.min(to, list.size()); i < end; i++) {
+                elements.write(list.get(i), jgen);
+            }
+        } else if (value instanceof Iterable) {
+            Iterator<?> it = ((Iterable<?>) value).iterator();
+            for (int i = 0; i < to && it.hasNext(); i++) {
+                Object element = it.next();
+                if (i >= from) {
+                    elements.write(element, jgen);
+                }
+            }
+        } else {
+            for (int i = from, end = Math.min(to, Array.getLength(value)); i < end; i++) {
+                elements.write(Array.get(value, i), jgen);
+            }
+        }
+        jgen.writeEndArray();
+    }
+
+    /*
+     * resolves the element serializer once per slice, per element class only when the
+     * element type is not final and no content serializer is annotated
+     */
+    private static final class ElementWriter {
+
+        private final SerializerProvider provider;
+
+        private final BeanPropertyWriter writer;
+
+        private final TypeSerializer typeSerializer;
+
+        private JsonSerializer<Object> serializer;
+
+        private Class<?> serializerClass;
+
+        @SuppressWarnings("unchecked")
+        ElementWriter(SerializerProvider provider, BeanPropertyWriter writer) throws JsonMappingException {
+            this.provider = provider;
+            this.writer = writer;
+            JavaType type = writer.getSerializationType() != null ? writer.getSerializationType() : writer.getType();
+            JavaType contentType = type.getContentType();
+            Object typeHandler = contentType == null ? null : contentType.getTypeHandler();
+            this.typeSerializer = typeHandler instanceof TypeSerializer ? (TypeSerializer) typeHandler
+                    : contentType == null ? null : provider.findTypeSerializer(contentType);
+            Object contentSerializer = provider.getAnnotationIntrospector() == null ? null
+                    : provider.getAnnotationIntrospector().findContentSerializer(writer.getMember());
+            if (contentSerializer != null) {
+                serializer = (JsonSerializer<Object>) provider.handleSecondaryContextualization(
+                        provider.serializerInstance(writer.getMember(), contentSerializer), writer);
+            } else if (contentType != null && contentType.isFinal()) {
+                serializer = provider.findValueSerializer(contentType, writer);
+            }
+        }
+
+        void write(Object element, JsonGenerator jgen) throws IOException {
+            if (element == null) {
+                provider.defaultSerializeNull(jgen);
+                return;
+            }
+            JsonSerializer<Object> elementSerializer = serializer;
+            if (elementSerializer == null || serializerClass != null && serializerClass != element.getClass()) {
+                serializerClass = element.getClass();
+                elementSerializer = serializer = provider.findValueSerializer(serializerClass, writer);
+            }
+            if (typeSerializer == null) {
+                elementSerializer.serialize(element, jgen, provider);
+            } else {
+                elementSerializer.serializeWithType(element, jgen, provider, typeSerializer);
+            }
+        }
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+
+        if (o == null || getClass() != o.getClass()) return false;
+
+        PropertySlice that = (PropertySlice) o;
+
+        return from == that.from && to == that.to;
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * from + to;
+    }
+
+    @Override
+    public String toString() {
+        return "[" + from + ":" + (to == UNBOUNDED ? "" : Integer.toString(to)) + "]";
+    }
+
+}
@@ -0,0 +1,57 @@
+package rk.prod.jackson;
+
+import com.fasterxml.jackson.databind.BeanDescription;
+import com.fasterxml.jackson.databind.DeserializationConfig;
+import com.fasterxml.jackson.databind.PropertyName;
+import com.fasterxml.jackson.databind.deser.BeanDeserializerBuilder;
+import com.fasterxml.jackson.databind.deser.BeanDeserializerModifier;
+import com.fasterxml.jackson.databind.deser.CreatorProperty;
+import com.fasterxml.jackson.databind.deser.SettableBeanProperty;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * PrunedBeanDeserializerModifier is the input side of PrunedBeanSerializerModifier,
+ * the properties that are not part of the nested properties are removed from the
+ * BeanDeserializer of a class and marked ignorable, so the parser skips their
+ * values (skipChildren) instead of binding them
+ * <p>
+ * Creator (constructor) properties are always bound, a subclass of a configured class
+ * is pruned like its closest configured superclass or interface (TypeDispatch), classes
+ * that are not reachable through the nested properties are left untouched
+ */
+public class PrunedBeanDeserializerModifier extends BeanDeserializerModifier {
+
+    private final TypeDispatch<JacksonClassAttribute> classLevelJsonAttribute;
+
+    public PrunedBeanDeserializerModifier(Map<Class<?>, JacksonClassAttribute> classLevelJsonAttribute) {
+        this.classLevelJsonAttribute = new TypeDispatch<>(classLevelJsonAttribute);
+    }
+
+    @Override
+    public BeanDeserializerBuilder updateBuilder(DeserializationConfig config, BeanDescription beanDesc,
+                                                 BeanDeserializerBuilder builder) {
+        JacksonClassAttribute classAttribute = classLevelJsonAttribute.get(beanDesc.getBeanClass());
+        if (classAttribute == null) {
+            return builder;
+        }
+        Set<String> properties = classAttribute.getAttributes().keySet();
+        List<String> pruned = new ArrayList<>();
+        for (Iterator<SettableBeanProperty> it = builder.getProperties(); it.hasNext(); ) {
+            SettableBeanProperty property = it.next();
+            if (!properties.contains(property.getName()) && !(property instanceof CreatorProperty)) {
+                pruned.add(property.getName());
+            }
+        }
+        for (String name : pruned) {
+            builder.removeProperty(new PropertyName(name));
+            builder.addIgnorable(name);
+        }
+        return builder;
+    }
+
+}
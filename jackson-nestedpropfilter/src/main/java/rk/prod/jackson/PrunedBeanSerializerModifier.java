@@ -0,0 +1,60 @@
+package rk.prod.jackson;
+
+import com.fasterxml.jackson.databind.BeanDescription;
+import com.fasterxml.jackson.databind.SerializationConfig;
+import com.fasterxml.jackson.databind.ser.BeanPropertyWriter;
+import com.fasterxml.jackson.databind.ser.BeanSerializerBuilder;
+import com.fasterxml.jackson.databind.ser.BeanSerializerModifier;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * PrunedBeanSerializerModifier drops the BeanPropertyWriters that are not
+ * part of the nested properties when Jackson builds the BeanSerializer of
+ * a class, the resulting serializer writes the selected properties only
+ * and never calls a PropertyFilter
+ * <p>
+ * A subclass or a proxy (Foo$HibernateProxy$xyz) of a configured class is pruned like its
+ * closest configured superclass or interface (TypeDispatch), classes that are not reachable
+ * through the nested properties are left untouched
+ */
+public class PrunedBeanSerializerModifier extends BeanSerializerModifier {
+
+    private final TypeDispatch<JacksonClassAttribute> classLevelJsonAttribute;
+
+    public PrunedBeanSerializerModifier(Map<Class<?>, JacksonClassAttribute> classLevelJsonAttribute) {
+        this.classLevelJsonAttribute = new TypeDispatch<>(classLevelJsonAttribute);
+    }
+
+    @Override
+    public List<BeanPropertyWriter> changeProperties(SerializationConfig config, BeanDescription beanDesc,
+                                                     List<BeanPropertyWriter> beanProperties) {
+        JacksonClassAttribute classAttribute = classLevelJsonAttribute.get(beanDesc.getBeanClass());
+        if (classAttribute == null) {
+            return beanProperties;
+        }
+        Set<String> properties = classAttribute.getAttributes().keySet();
+        List<BeanPropertyWriter> pruned = new ArrayList<>(properties.size());
+        for (BeanPropertyWriter writer : beanProperties) {
+            if (properties.contains(writer.getName())) {
+                PropertyOptions options = classAttribute.getOptions(writer.getName());
+                pruned.add(options == null ? writer : new SlicedBeanPropertyWriter(writer, options));
+            }
+        }
+        return pruned;
+    }
+
+    @Override
+    public BeanSerializerBuilder updateBuilder(SerializationConfig config, BeanDescription beanDesc,
+                                               BeanSerializerBuilder builder) {
+        if (classLevelJsonAttribute.get(beanDesc.getBeanClass()) != null) {
+            // already pruned, @JsonFilter (or the Object.class mixin) is not needed anymore
+            builder.setFilterId(null);
+        }
+        return builder;
+    }
+
+}
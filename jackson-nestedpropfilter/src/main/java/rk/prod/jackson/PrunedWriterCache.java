@@ -0,0 +1,68 @@
+package rk.prod.jackson;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+
+import java.util.concurrent.Callable;
+
+/**
+ * PrunedWriterCache serves many property sets from one ObjectMapper with pruned serializers
+ * (see NestedPropertyFilterModule), as Jackson caches one serializer per class and mapper,
+ * every root class and spec gets its own copy of the base mapper with the module registered,
+ * built on first use and kept per class (ClassScopedMetadataCache), i.e.,
+ * <p>
+ * PrunedWriterCache writers = new PrunedWriterCache(objectMapper);
+ * writers.writerFor(Order.class, "id", "billing.zip").writeValueAsString(order)
+ * <p>
+ * The key is the root class and the whole spec, the same paths in any order share a writer,
+ * the serializers of a copy are pruned per class, so a class reached through two paths gets
+ * the union of their properties, use a path aware filter (FilteredWriterRegistry) to keep
+ * a property set per path
+ * <p>
+ * Each writer holds the serializers of its copy, maximumSize bounds the specs kept per root class
+ */
+public class PrunedWriterCache {
+
+    private final ObjectMapper objectMapper;
+
+    private final MetadataCache<JacksonClassAttributeCache.KeyHolder, ObjectWriter> writers;
+
+    public PrunedWriterCache(ObjectMapper objectMapper) {
+        this(objectMapper, DefaultMetadataCacheFactory.DEFAULT_MAXIMUM_SIZE);
+    }
+
+    /*
+     * the base mapper is copied per spec, configure it before the first writer is built
+     */
+    public PrunedWriterCache(ObjectMapper objectMapper, long maximumSize) {
+        this.objectMapper = objectMapper;
+        this.writers = new ClassScopedMetadataCache<>(maximumSize);
+    }
+
+    public ObjectWriter writerFor(Class<?> clazz, String... properties) {
+        return writerFor(clazz, FilterSpec.of(properties));
+    }
+
+    public ObjectWriter writerFor(final Class<?> clazz, final FilterSpec spec) {
+        return writers.get(new JacksonClassAttributeCache.KeyHolder(clazz, spec), new Callable<ObjectWriter>() {
+            @Override
+            public ObjectWriter call() {
+                return objectMapper.copy()
+                        .registerModule(new NestedPropertyFilterModule(clazz, spec))
+                        .writerFor(clazz);
+            }
+        });
+    }
+
+    /*
+     * drops the writers, i.e., after JacksonClassAttributeCache.invalidate of a redefined class
+     */
+    public void invalidateAll() {
+        writers.invalidateAll();
+    }
+
+    public long size() {
+        return writers.size();
+    }
+
+}
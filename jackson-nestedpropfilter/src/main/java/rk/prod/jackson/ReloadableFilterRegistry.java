@@ -0,0 +1,254 @@
+package rk.prod.jackson;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.google.common.collect.ImmutableMap;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ReloadableFilterRegistry is a FilterRegistry whose named filters can be replaced at runtime,
+ * from a properties file (watched for changes) or programmatically, one filter per line
+ * <p>
+ * orderSummary = com.your.vo.Order:id,status,items(name,price)
+ * <p>
+ * the root class and the field selection of filterOutAllExceptFields. A new set of specs is compiled
+ * completely by the updating thread and then published at once (a volatile snapshot), writers never
+ * wait and always see either the old or the new set, never a mix. A spec that did not change keeps
+ * its compiled filter and writer, a set with a broken spec is rejected and the old one stays
+ */
+public class ReloadableFilterRegistry implements FilterRegistry {
+
+    private static final char CLASS_SEPARATOR = ':';
+
+    static final long RELOAD_DELAY_MILLIS = 100;
+
+    private final ObjectMapper objectMapper;
+
+    private final String filterId;
+
+    private final ClassLoader classLoader;
+
+    private volatile Snapshot snapshot = new Snapshot(0, ImmutableMap.<String, Entry>of());
+
+    // the failure of the last reload by watch, null if it succeeded
+    private volatile Exception lastFailure;
+
+    public ReloadableFilterRegistry(ObjectMapper objectMapper) {
+        this(objectMapper, FilteredWriterRegistry.DEFAULT_FILTER_ID);
+    }
+
+    public ReloadableFilterRegistry(ObjectMapper objectMapper, String filterId) {
+        this(objectMapper, filterId, ReloadableFilterRegistry.class.getClassLoader());
+    }
+
+    /*
+     * classLoader loads the root classes of the specs
+     */
+    public ReloadableFilterRegistry(ObjectMapper objectMapper, String filterId, ClassLoader classLoader) {
+        this.objectMapper = objectMapper;
+        this.filterId = filterId;
+        this.classLoader = classLoader;
+    }
+
+    @Override
+    public ObjectWriter writer(String name) {
+        return entry(name).writer;
+    }
+
+    public SimpleBeanPropertyFilter filter(String name) {
+        return entry(name).filter;
+    }
+
+    private Entry entry(String name) {
+        Entry entry = snapshot.entries.get(name);
+        if (entry == null) {
+            throw new IllegalArgumentException("No filtered writer registered with name '" + name + "'");
+        }
+        return entry;
+    }
+
+    @Override
+    public boolean contains(String name) {
+        return snapshot.entries.containsKey(name);
+    }
+
+    @Override
+    public Set<String> names() {
+        return snapshot.entries.keySet();
+    }
+
+    /*
+     * the number of sets published so far
+     */
+    public long getVersion() {
+        return snapshot.version;
+    }
+
+    public Exception getLastFailure() {
+        return lastFailure;
+    }
+
+    /*
+     * replaces all filters with the specs (name -> class:field selection), throws
+     * IllegalArgumentException listing the broken specs, the filters are unchanged then,
+     * returns false if the specs are the current ones, nothing is published then
+     */
+    public synchronized boolean update(Map<String, String> specs) {
+        Snapshot current = snapshot;
+        ImmutableMap.Builder<String, Entry> entries = ImmutableMap.builder();
+        Map<String, String> failures = new TreeMap<>();
+        boolean changed = specs.size() != current.entries.size();
+        for (Map.Entry<String, String> spec : specs.entrySet()) {
+            String name = spec.getKey();
+            String value = spec.getValue().trim();
+            Entry entry = current.entries.get(name);
+            if (entry == null || !entry.spec.equals(value)) {
+                changed = true;
+                try {
+                    entry = compile(value);
+                } catch (ClassNotFoundException e) {
+                    failures.put(name, "class not found " + e.getMessage());
+                    continue;
+                } catch (RuntimeException e) {
+                    failures.put(name, e.getMessage());
+                    continue;
+                }
+            }
+            entries.put(name, entry);
+        }
+        if (!failures.isEmpty()) {
+            throw new IllegalArgumentException("Invalid filter specs, keeping version " + current.version + ": " + failures);
+        }
+        if (changed) {
+            snapshot = new Snapshot(current.version + 1, entries.build());
+        }
+        return changed;
+    }
+
+    private Entry compile(String spec) throws ClassNotFoundException {
+        int separator = spec.indexOf(CLASS_SEPARATOR);
+        if (separator < 0) {
+            throw new IllegalArgumentException("missing '" + CLASS_SEPARATOR + "' between class and fields in " + spec);
+        }
+        Class<?> clazz = Class.forName(spec.substring(0, separator).trim(), true, classLoader);
+        SimpleBeanPropertyFilter filter = NestedBeanPropertyFilter.filterOutAllExceptFields(clazz,
+                spec.substring(separator + 1).trim());
+        return new Entry(spec, filter, FilteredWriterRegistry.filteredWriter(objectMapper, filterId, clazz, filter));
+    }
+
+    /*
+     * replaces all filters with the properties file (UTF-8), see update
+     */
+    public boolean reload(Path file) throws IOException {
+        Properties properties = new Properties();
+        try (Reader reader = new InputStreamReader(Files.newInputStream(file), StandardCharsets.UTF_8)) {
+            properties.load(reader);
+        }
+        Map<String, String> specs = new TreeMap<>();
+        for (String name : properties.stringPropertyNames()) {
+            specs.put(name, properties.getProperty(name));
+        }
+        return update(specs);
+    }
+
+    /*
+     * loads the file and reloads it on every change until the returned Closeable is closed, a
+     * failed reload keeps the filters and is kept as getLastFailure, the first load throws
+     * <p>
+     * A file is reloaded once its events settled for RELOAD_DELAY_MILLIS, still a file should be
+     * replaced by moving a complete one over it, a file read while it is being written may be
+     * valid but incomplete
+     */
+    public Closeable watch(final Path file) throws IOException {
+        reload(file);
+        final Path fileName = file.getFileName();
+        Path directory = file.toAbsolutePath().getParent();
+        final WatchService watchService = directory.getFileSystem().newWatchService();
+        directory.register(watchService, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+        Thread watcher = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    while (true) {
+                        WatchKey key = watchService.take();
+                        boolean changed = false;
+                        // an editor or a copy raises several events, wait until they settled
+                        while (key != null) {
+                            for (WatchEvent<?> event : key.pollEvents()) {
+                                // OVERFLOW has no file, it may have been this one
+                                changed |= event.context() == null || fileName.equals(event.context());
+                            }
+                            if (!key.reset()) {
+                                return;
+                            }
+                            key = watchService.poll(RELOAD_DELAY_MILLIS, TimeUnit.MILLISECONDS);
+                        }
+                        if (changed) {
+                            reloadQuietly(file);
+                        }
+                    }
+                } catch (InterruptedException | ClosedWatchServiceException e) {
+                    // closed
+                }
+            }
+        }, "nested-filter-reload-" + fileName);
+        watcher.setDaemon(true);
+        watcher.start();
+        return watchService;
+    }
+
+    private void reloadQuietly(Path file) {
+        try {
+            reload(file);
+            lastFailure = null;
+        } catch (IOException | RuntimeException e) {
+            lastFailure = e;
+        }
+    }
+
+    private static final class Snapshot {
+
+        private final long version;
+
+        private final Map<String, Entry> entries;
+
+        Snapshot(long version, Map<String, Entry> entries) {
+            this.version = version;
+            this.entries = entries;
+        }
+    }
+
+    private static final class Entry {
+
+        private final String spec;
+
+        private final SimpleBeanPropertyFilter filter;
+
+        private final ObjectWriter writer;
+
+        Entry(String spec, SimpleBeanPropertyFilter filter, ObjectWriter writer) {
+            this.spec = spec;
+            this.filter = filter;
+            this.writer = writer;
+        }
+    }
+
+}
@@ -0,0 +1,95 @@
+package rk.prod.jackson;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.BeanPropertyWriter;
+import com.fasterxml.jackson.databind.ser.impl.PropertySerializerMap;
+
+/**
+ * SlicedBeanPropertyWriter writes a property limited to its PropertyOptions, used by
+ * PrunedBeanSerializerModifier for paths like items[0:50] or address?NON_NULL, and by
+ * IndexedPropertyFilter for the properties of a filter with options
+ * <p>
+ * The value is read once, checked against the options and written with the serializer,
+ * null serializer and inclusion of the base writer
+ */
+public class SlicedBeanPropertyWriter extends BeanPropertyWriter {
+
+    private static final long serialVersionUID = 1L;
+
+    private final transient BeanPropertyWriter base;
+
+    private final PropertyOptions options;
+
+    public SlicedBeanPropertyWriter(BeanPropertyWriter base, PropertyOptions options) {
+        super(base);
+        this.base = base;
+        this.options = options;
+    }
+
+    /*
+     * true if this writer copies the given one, see IndexedPropertyFilter
+     */
+    boolean isCopyOf(BeanPropertyWriter writer) {
+        return base == writer;
+    }
+
+    /*
+     * false for writers of another type (unwrapped, virtual properties) that write
+     * their value their own way, a copy would lose it
+     */
+    static boolean canCopy(BeanPropertyWriter writer) {
+        return writer.getClass() == BeanPropertyWriter.class || writer instanceof SlicedBeanPropertyWriter;
+    }
+
+    @Override
+    public void serializeAsField(Object bean, JsonGenerator gen, SerializerProvider prov) throws Exception {
+        Object value = get(bean);
+        if (!options.serializeValue(bean, value, gen, prov, this)) {
+            serializeValueAsField(bean, value, gen, prov);
+        }
+    }
+
+    /*
+     * BeanPropertyWriter.serializeAsField with the value already read
+     */
+    private void serializeValueAsField(Object bean, Object value, JsonGenerator gen, SerializerProvider prov)
+            throws Exception {
+        if (value == null) {
+            if (_nullSerializer != null) {
+                gen.writeFieldName(_name);
+                _nullSerializer.serialize(null, gen, prov);
+            }
+            return;
+        }
+        JsonSerializer<Object> ser = _serializer;
+        if (ser == null) {
+            Class<?> cls = value.getClass();
+            PropertySerializerMap map = _dynamicSerializers;
+            ser = map.serializerFor(cls);
+            if (ser == null) {
+                ser = _findAndAddDynamic(map, cls, prov);
+            }
+        }
+        if (_suppressableValue != null) {
+            if (MARKER_FOR_EMPTY == _suppressableValue) {
+                if (ser.isEmpty(prov, value)) {
+                    return;
+                }
+            } else if (_suppressableValue.equals(value)) {
+                return;
+            }
+        }
+        if (value == bean && _handleSelfReference(bean, gen, prov, ser)) {
+            return;
+        }
+        gen.writeFieldName(_name);
+        if (_typeSerializer == null) {
+            ser.serialize(value, gen, prov);
+        } else {
+            ser.serializeWithType(value, gen, prov, _typeSerializer);
+        }
+    }
+
+}
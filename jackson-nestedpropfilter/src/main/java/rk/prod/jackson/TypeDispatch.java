@@ -0,0 +1,80 @@
+package rk.prod.jackson;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * TypeDispatch looks up the value configured for the runtime class of an object, a class without
+ * a value of its own gets the value of its closest configured superclass or else of a configured
+ * interface, i.e., Hibernate proxies (Foo$HibernateProxy$xyz), subclasses and implementations
+ * of interface typed properties get the value of Foo or of the interface
+ * <p>
+ * The runtime class is resolved once and stored with the class (ClassValue), so the lookup
+ * is a ClassValue get, does not allocate and does not keep the class loader alive
+ */
+final class TypeDispatch<V> {
+
+    private static final Object NONE = new Object();
+
+    private final Map<Class<?>, V> configured;
+
+    // the resolved value or NONE, ClassValue can not hold null
+    private final ClassValue<Object> resolved = new ClassValue<Object>() {
+        @Override
+        protected Object computeValue(Class<?> type) {
+            V value = resolve(type);
+            return value == null ? NONE : value;
+        }
+    };
+
+    /*
+     * configured must not change afterwards
+     */
+    TypeDispatch(Map<Class<?>, V> configured) {
+        this.configured = configured;
+    }
+
+    /*
+     * returns the value of the class, its closest superclass or its interfaces, null if there is none
+     */
+    @SuppressWarnings("unchecked")
+    V get(Class<?> clazz) {
+        V value = configured.get(clazz);
+        if (value != null) {
+            return value;
+        }
+        Object result = resolved.get(clazz);
+        return result == NONE ? null : (V) result;
+    }
+
+    // superclasses first, then the interfaces breadth first, nearest first
+    private V resolve(Class<?> clazz) {
+        for (Class<?> type = clazz.getSuperclass(); type != null; type = type.getSuperclass()) {
+            V value = configured.get(type);
+            if (value != null) {
+                return value;
+            }
+        }
+        Deque<Class<?>> queue = new ArrayDeque<>();
+        Set<Class<?>> seen = new HashSet<>();
+        for (Class<?> type = clazz; type != null; type = type.getSuperclass()) {
+            queue.add(type);
+        }
+        while (!queue.isEmpty()) {
+            for (Class<?> type : queue.poll().getInterfaces()) {
+                if (seen.add(type)) {
+                    V value = configured.get(type);
+                    if (value != null) {
+                        return value;
+                    }
+                    queue.add(type);
+                }
+            }
+        }
+        return null;
+    }
+
+}
@@ -0,0 +1,56 @@
+package rk.prod.jackson;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * WarmUpReport lists the time spent preloading the metadata of every class
+ * as well as the classes that failed, see MetadataWarmUp
+ */
+public class WarmUpReport {
+
+    private final Map<Class<?>, Long> nanosPerClass;
+
+    private final Map<Class<?>, Throwable> failures;
+
+    private final long totalNanos;
+
+    public WarmUpReport(Map<Class<?>, Long> nanosPerClass, Map<Class<?>, Throwable> failures, long totalNanos) {
+        this.nanosPerClass = Collections.unmodifiableMap(new LinkedHashMap<>(nanosPerClass));
+        this.failures = Collections.unmodifiableMap(new LinkedHashMap<>(failures));
+        this.totalNanos = totalNanos;
+    }
+
+    public Map<Class<?>, Long> getNanosPerClass() {
+        return nanosPerClass;
+    }
+
+    public Map<Class<?>, Throwable> getFailures() {
+        return failures;
+    }
+
+    /*
+     * wall clock time of the whole warm up
+     */
+    public long getTotalNanos() {
+        return totalNanos;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("WarmUpReport: ")
+                .append(nanosPerClass.size()).append(" classes in ")
+                .append(TimeUnit.NANOSECONDS.toMillis(totalNanos)).append(" ms");
+        for (Map.Entry<Class<?>, Long> entry : nanosPerClass.entrySet()) {
+            sb.append("\n  ").append(entry.getKey().getName()).append(": ")
+                    .append(TimeUnit.NANOSECONDS.toMicros(entry.getValue())).append(" us");
+        }
+        for (Map.Entry<Class<?>, Throwable> entry : failures.entrySet()) {
+            sb.append("\n  ").append(entry.getKey().getName()).append(": failed ").append(entry.getValue());
+        }
+        return sb.toString();
+    }
+
+}
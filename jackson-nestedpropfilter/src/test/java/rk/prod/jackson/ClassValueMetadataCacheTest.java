@@ -0,0 +1,87 @@
+package rk.prod.jackson;
+
+import org.junit.Assert;
+import org.junit.Test;
+import rk.prod.jackson.datatype.Pojo;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class ClassValueMetadataCacheTest {
+
+    private final ClassValueMetadataCache<String> cache = new ClassValueMetadataCache<>();
+
+    @Test
+    public void singleLoadTest() throws Exception {
+        final AtomicInteger loads = new AtomicInteger();
+        final CountDownLatch loading = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final Callable<String> loader = new Callable<String>() {
+            @Override
+            public String call() throws Exception {
+                loads.incrementAndGet();
+                loading.countDown();
+                release.await();
+                return "pojo";
+            }
+        };
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            Future<String> first = executor.submit(new Callable<String>() {
+                @Override
+                public String call() {
+                    return cache.get(Pojo.class, loader);
+                }
+            });
+            Assert.assertTrue(loading.await(10, TimeUnit.SECONDS));
+            Future<String> second = executor.submit(new Callable<String>() {
+                @Override
+                public String call() {
+                    return cache.get(Pojo.class, loader);
+                }
+            });
+            release.countDown();
+            Assert.assertEquals("pojo", first.get(10, TimeUnit.SECONDS));
+            Assert.assertEquals("pojo", second.get(10, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdownNow();
+        }
+        // a caller missing after the load is done gets the cached value
+        Assert.assertEquals("pojo", cache.get(Pojo.class, loader));
+        Assert.assertEquals(1, loads.get());
+        Assert.assertEquals(1, cache.stats().getLoadCount());
+    }
+
+    @Test
+    public void invalidateDuringLoadTest() {
+        // the load returns its value but an invalidate while it runs keeps it out of the cache
+        Assert.assertEquals("stale", cache.get(Pojo.class, new Callable<String>() {
+            @Override
+            public String call() {
+                cache.invalidate(Pojo.class);
+                return "stale";
+            }
+        }));
+        Assert.assertNull(cache.get(Pojo.class));
+        Assert.assertEquals(0, cache.size());
+
+        Assert.assertEquals("stale", cache.get(Pojo.class, new Callable<String>() {
+            @Override
+            public String call() {
+                cache.invalidateAll();
+                return "stale";
+            }
+        }));
+        Assert.assertNull(cache.get(Pojo.class));
+
+        cache.put(Pojo.class, "fresh");
+        Assert.assertEquals("fresh", cache.get(Pojo.class));
+        Assert.assertEquals(1, cache.size());
+    }
+
+}
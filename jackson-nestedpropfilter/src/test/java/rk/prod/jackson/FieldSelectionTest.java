@@ -0,0 +1,38 @@
+package rk.prod.jackson;
+
+import org.junit.Assert;
+import org.junit.Test;
+import rk.prod.jackson.datatype.Pojo;
+
+public class FieldSelectionTest {
+
+    @Test
+    public void parseTest() {
+        Assert.assertSame(FilterSpec.of("a", "c.a", "c.c.*"), FieldSelection.parse("a,c(a,c(*))"));
+        Assert.assertSame(FilterSpec.of("a", "c.a", "c.c.*"), FieldSelection.parse(" a , c ( a, c.* ) "));
+        Assert.assertSame(FilterSpec.of("a", "c.c.a", "c.c.b", "c.b"), FieldSelection.parse("a,c.c(a,b),c(b)"));
+        Assert.assertSame(FilterSpec.EMPTY, FieldSelection.parse(""));
+        Assert.assertSame(FilterSpec.allExcept("c.b"), FieldSelection.parse("*,c(*,!b)"));
+    }
+
+    @Test
+    public void syntaxErrorTest() {
+        for (String fields : new String[]{"a,", "a,,b", "c()", "c(a", "a)", "c(a)b", ".a"}) {
+            try {
+                FieldSelection.parse(fields);
+                Assert.fail(fields);
+            } catch (IllegalArgumentException e) {
+                System.out.println(e.getMessage());
+            }
+        }
+    }
+
+    @Test
+    public void cachedFilterTest() {
+        Assert.assertSame(JacksonClassAttributeCache.getFieldSelection("a,c(a)"),
+                JacksonClassAttributeCache.getFieldSelection("a,c(a)"));
+        Assert.assertSame(NestedBeanPropertyFilter.filterOutAllExceptFields(Pojo.class, "a,c(a)"),
+                NestedBeanPropertyFilter.filterOutAllExcept(Pojo.class, "c.a", "a"));
+    }
+
+}
@@ -0,0 +1,99 @@
+package rk.prod.jackson;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import org.junit.Assert;
+import org.junit.Test;
+import rk.prod.jackson.datatype.Catalog;
+import rk.prod.jackson.datatype.Category;
+import rk.prod.jackson.datatype.Pojo;
+import rk.prod.jackson.datatype.Pojo2;
+import rk.prod.jackson.datatype.Pojo3;
+
+import java.util.Arrays;
+
+public class FilterOperationTest {
+
+    private Pojo pojo = new Pojo("a", 2, new Pojo2("c.a", 4, new Pojo3("c.c.a", 7)));
+
+    private String serialize(Object value, SimpleBeanPropertyFilter filter) throws JsonProcessingException {
+        ObjectMapper objectMapper = new ObjectMapper();
+        objectMapper.setFilterProvider(new NestedPropertyFilterProvider().addFilter("nestedPropertyFilter", filter));
+        return objectMapper.writeValueAsString(value);
+    }
+
+    @Test
+    public void classLevelTest() throws JsonProcessingException {
+        SimpleBeanPropertyFilter view = NestedBeanPropertyFilter.filterOutAllExcept(Pojo.class, "a", "c.a", "c.c.*");
+        SimpleBeanPropertyFilter role = NestedBeanPropertyFilter.filterOutAllExcept(Pojo.class, "a", "b", "c.c.a");
+        SimpleBeanPropertyFilter tenant = NestedBeanPropertyFilter.filterOutAllExcept(Pojo.class, "c.c.b");
+
+        Assert.assertEquals(serialize(pojo, NestedBeanPropertyFilter.filterOutAllExcept(Pojo.class, "a", "b", "c.a", "c.c.*")),
+                serialize(pojo, NestedBeanPropertyFilter.union(view, role)));
+        Assert.assertEquals(serialize(pojo, NestedBeanPropertyFilter.filterOutAllExcept(Pojo.class, "a", "c.c.a")),
+                serialize(pojo, NestedBeanPropertyFilter.intersect(view, role)));
+        Assert.assertEquals(serialize(pojo, NestedBeanPropertyFilter.filterOutAllExcept(Pojo.class, "a", "c.a", "c.c.a")),
+                serialize(pojo, NestedBeanPropertyFilter.minus(view, tenant)));
+        Assert.assertEquals("{\"a\":\"a\",\"c\":{\"c\":{\"a\":\"c.c.a\"}}}",
+                serialize(pojo, NestedBeanPropertyFilter.minus(NestedBeanPropertyFilter.intersect(view, role), tenant)));
+    }
+
+    @Test
+    public void pathAwareTest() throws JsonProcessingException {
+        Category root = new Category("root", 1, null);
+        Category child = new Category("child", 2, root);
+
+        // children point back to the parent, so no * here
+        SimpleBeanPropertyFilter view = NestedBeanPropertyFilter.filterOutAllExceptByPath(Category.class,
+                "name", "rank", "parent.name", "parent.rank");
+        SimpleBeanPropertyFilter redaction = NestedBeanPropertyFilter.filterOutAllExceptByPath(Category.class,
+                "rank", "parent.rank", "parent.parent");
+
+        Assert.assertEquals("{\"name\":\"child\",\"parent\":{\"name\":\"root\"}}",
+                serialize(child, NestedBeanPropertyFilter.minus(view, redaction)));
+        Assert.assertEquals("{\"rank\":2,\"parent\":{\"rank\":1}}",
+                serialize(child, NestedBeanPropertyFilter.intersect(view, redaction)));
+        Assert.assertEquals("{\"name\":\"child\",\"rank\":2,\"parent\":{\"name\":\"root\",\"rank\":1,\"parent\":null}}",
+                serialize(child, NestedBeanPropertyFilter.union(view, redaction)));
+    }
+
+    @Test
+    public void sliceTest() throws JsonProcessingException {
+        Catalog catalog = new Catalog("catalog",
+                Arrays.asList(new Pojo3("0", 0), new Pojo3("1", 1), new Pojo3("2", 2), new Pojo3("3", 3)),
+                new String[]{"x", "y", "z"});
+        SimpleBeanPropertyFilter first = NestedBeanPropertyFilter.filterOutAllExcept(Catalog.class, "items[0:2].a", "tags[:1]");
+        SimpleBeanPropertyFilter second = NestedBeanPropertyFilter.filterOutAllExcept(Catalog.class, "items[1:3].a", "tags");
+
+        Assert.assertEquals("{\"items\":[{\"a\":\"0\"},{\"a\":\"1\"},{\"a\":\"2\"}],\"tags\":[\"x\",\"y\",\"z\"]}",
+                serialize(catalog, NestedBeanPropertyFilter.union(first, second)));
+        Assert.assertEquals("{\"items\":[{\"a\":\"1\"}],\"tags\":[\"x\"]}",
+                serialize(catalog, NestedBeanPropertyFilter.intersect(first, second)));
+    }
+
+    @Test
+    public void cachedTest() {
+        SimpleBeanPropertyFilter view = NestedBeanPropertyFilter.filterOutAllExcept(Pojo.class, "a", "c.a");
+        SimpleBeanPropertyFilter role = NestedBeanPropertyFilter.filterOutAllExcept(Pojo.class, "b");
+
+        Assert.assertSame(NestedBeanPropertyFilter.union(view, role), NestedBeanPropertyFilter.union(
+                NestedBeanPropertyFilter.filterOutAllExcept(Pojo.class, "c.a", "a"), role));
+        Assert.assertNotSame(NestedBeanPropertyFilter.union(view, role), NestedBeanPropertyFilter.union(role, view));
+
+        // path aware filters are created per call but share the trie
+        Assert.assertSame(NestedBeanPropertyFilter.intersect(
+                NestedBeanPropertyFilter.filterOutAllExceptByPath(Pojo.class, "a"),
+                NestedBeanPropertyFilter.filterOutAllExceptByPath(Pojo.class, "*")),
+                NestedBeanPropertyFilter.intersect(
+                        NestedBeanPropertyFilter.filterOutAllExceptByPath(Pojo.class, "a"),
+                        NestedBeanPropertyFilter.filterOutAllExceptByPath(Pojo.class, "*")));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void differentRootClassTest() {
+        NestedBeanPropertyFilter.union(NestedBeanPropertyFilter.filterOutAllExcept(Pojo.class, "a"),
+                NestedBeanPropertyFilter.filterOutAllExcept(Category.class, "name"));
+    }
+
+}
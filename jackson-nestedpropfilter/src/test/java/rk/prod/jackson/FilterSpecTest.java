@@ -0,0 +1,60 @@
+package rk.prod.jackson;
+
+import org.junit.Assert;
+import org.junit.Test;
+import rk.prod.jackson.datatype.Pojo;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+public class FilterSpecTest {
+
+    @Test
+    public void canonicalTest() {
+        FilterSpec spec = FilterSpec.of("c.a", "a");
+
+        Assert.assertSame(spec, FilterSpec.of("a", "c.a"));
+        Assert.assertSame(spec, FilterSpec.of(" a", "c. a", "a", "c..a"));
+        Assert.assertEquals(Arrays.asList("a", "c.a"), spec.getPaths());
+    }
+
+    @Test
+    public void astrixCoversPathsTest() {
+        Assert.assertEquals(Arrays.asList("a", "c.*"), FilterSpec.of("c.c.b", "a", "c.*", "c", "c.a").getPaths());
+        Assert.assertEquals(Arrays.asList("*"), FilterSpec.of("c.c.b", "a", "*").getPaths());
+        Assert.assertEquals(Arrays.asList("c.*"), FilterSpec.of("c.*.a").getPaths());
+    }
+
+    @Test
+    public void childrenTest() {
+        FilterSpec spec = FilterSpec.of("a", "c.a", "c.c.*");
+
+        Assert.assertSame(FilterSpec.EMPTY, spec.children().get("a"));
+        Assert.assertSame(FilterSpec.of("a", "c.*"), spec.children().get("c"));
+        Assert.assertTrue(spec.children().get("c").children().get("c").isAstrix());
+    }
+
+    @Test
+    public void exclusionTest() {
+        FilterSpec spec = FilterSpec.allExcept("b", "c.c.b");
+
+        Assert.assertSame(spec, FilterSpec.of("*", "! b", "c.c.!b"));
+        Assert.assertEquals(Arrays.asList("!b", "!c.c.b", "*"), spec.getPaths());
+        Assert.assertTrue(spec.hasExclusions());
+        Assert.assertEquals(Collections.singleton("b"), spec.excluded());
+        Assert.assertSame(FilterSpec.of("*", "!c.b"), spec.children().get("c"));
+        Assert.assertSame(FilterSpec.of("a", "b", "c.a", "c.b", "c.c.a"),
+                JacksonClassAttributeCache.resolveExclusions(JacksonClassAttributeCache.getLazyJsonAttribute(Pojo.class),
+                        FilterSpec.allExcept("c.c.b")));
+    }
+
+    @Test
+    public void sharedSubtreeTest() {
+        PathTrieNode first = JacksonClassAttributeCache.generatePathTrie(Pojo.class, "a", "c.a", "c.c.b");
+        PathTrieNode second = JacksonClassAttributeCache.generatePathTrie(Pojo.class, "b", "c.c.b", "c.a");
+
+        Assert.assertNotSame(first, second);
+        Assert.assertSame(first.child("c"), second.child("c"));
+    }
+
+}
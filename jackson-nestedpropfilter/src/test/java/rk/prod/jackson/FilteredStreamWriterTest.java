@@ -0,0 +1,124 @@
+package rk.prod.jackson;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.Assert;
+import org.junit.Test;
+import rk.prod.jackson.datatype.Address;
+import rk.prod.jackson.datatype.Order;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+public class FilteredStreamWriterTest {
+
+    private ObjectMapper objectMapper = new ObjectMapper();
+
+    private FilteredWriterRegistry registry = new FilteredWriterRegistry(objectMapper)
+            .register("city", Address.class, "city")
+            .register("shipping", Order.class, NestedBeanPropertyFilter.filterOutAllExceptByPath(Order.class,
+                    "id", "shipping.city", "billing.zip"));
+
+    private static class FlushCountingOutputStream extends ByteArrayOutputStream {
+
+        private int flushes;
+
+        @Override
+        public void flush() {
+            flushes++;
+        }
+    }
+
+    // creates the addresses while they are written, checks the first batches are out before the last is created
+    private static Iterator<Address> addresses(final int size, final ByteArrayOutputStream out, final int flushSize) {
+        return new Iterator<Address>() {
+
+            private int next;
+
+            @Override
+            public boolean hasNext() {
+                return next < size;
+            }
+
+            @Override
+            public Address next() {
+                if (next > flushSize) {
+                    Assert.assertTrue(out.size() > 0);
+                }
+                int i = next++;
+                return new Address("s" + i, "c" + i, "z" + i);
+            }
+
+            @Override
+            public void remove() {
+                throw new UnsupportedOperationException();
+            }
+        };
+    }
+
+    private static String expected(int size) {
+        StringBuilder sb = new StringBuilder("[");
+        for (int i = 0; i < size; i++) {
+            sb.append(i == 0 ? "" : ",").append("{\"city\":\"c").append(i).append("\"}");
+        }
+        return sb.append("]").toString();
+    }
+
+    @Test
+    public void iteratorTest() throws IOException {
+        FlushCountingOutputStream out = new FlushCountingOutputStream();
+        try (FilteredStreamWriter writer = FilteredStreamWriter.open(registry.writer("city"), out, 100)) {
+            writer.writeAll(addresses(1000, out, 100));
+            Assert.assertEquals(1000, writer.getCount());
+            Assert.assertEquals(10, out.flushes);
+        }
+        Assert.assertEquals(11, out.flushes);
+        Assert.assertEquals(expected(1000), out.toString("UTF-8"));
+    }
+
+    @Test
+    public void callbackTest() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        FilteredStreamWriter writer = FilteredStreamWriter.open(registry.writer("city"), Channels.newChannel(out), 2);
+        for (int i = 0; i < 3; i++) {
+            writer.write(new Address("s" + i, "c" + i, "z" + i));
+        }
+        writer.close();
+        writer.close();
+        Assert.assertEquals(expected(3), out.toString("UTF-8"));
+    }
+
+    @Test
+    public void byPathTest() throws IOException {
+        List<Order> orders = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            orders.add(new Order(String.valueOf(i), new Address("s", "c", "z" + i), new Address("s2", "c" + i, "z2")));
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (FilteredStreamWriter writer = registry.streamWriter("shipping", out)) {
+            writer.writeAll(orders);
+        }
+        NestedPropertyFilterProvider filterProvider = new NestedPropertyFilterProvider();
+        filterProvider.addFilter(FilteredWriterRegistry.DEFAULT_FILTER_ID,
+                NestedBeanPropertyFilter.filterOutAllExceptByPath(Order.class, "id", "shipping.city", "billing.zip"));
+        Assert.assertEquals(objectMapper.writer(filterProvider).writeValueAsString(orders), out.toString("UTF-8"));
+    }
+
+    @Test
+    public void emptyTest() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        registry.streamWriter("city", out).close();
+        Assert.assertEquals("[]", out.toString("UTF-8"));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void closedTest() throws IOException {
+        FilteredStreamWriter writer = registry.streamWriter("city", new ByteArrayOutputStream());
+        writer.close();
+        writer.write(new Address("s", "c", "z"));
+    }
+
+}
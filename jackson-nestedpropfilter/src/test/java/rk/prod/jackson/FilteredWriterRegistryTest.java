@@ -0,0 +1,32 @@
+package rk.prod.jackson;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.Assert;
+import org.junit.Test;
+import rk.prod.jackson.datatype.Address;
+import rk.prod.jackson.datatype.Order;
+
+public class FilteredWriterRegistryTest {
+
+    private Order order = new Order("1", new Address("s", "c", "z"), new Address("s2", "c2", "z2"));
+
+    private FilteredWriterRegistry registry = new FilteredWriterRegistry(new ObjectMapper())
+            .register("summary", Order.class, "id")
+            .register("shipping", Order.class, NestedBeanPropertyFilter.filterOutAllExceptByPath(Order.class,
+                    "id", "shipping.city", "billing.zip"));
+
+    @Test
+    public void writeTest() throws JsonProcessingException {
+        Assert.assertEquals("{\"id\":\"1\"}", registry.writeValueAsString("summary", order));
+        Assert.assertEquals("{\"id\":\"1\",\"billing\":{\"zip\":\"z\"},\"shipping\":{\"city\":\"c2\"}}",
+                registry.writer("shipping").writeValueAsString(order));
+        Assert.assertSame(registry.writer("summary"), registry.writer("summary"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void unknownNameTest() {
+        registry.writer("unknown");
+    }
+
+}
@@ -0,0 +1,71 @@
+package rk.prod.jackson;
+
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ser.DefaultSerializerProvider;
+import com.fasterxml.jackson.databind.ser.PropertyWriter;
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Test;
+import rk.prod.jackson.datatype.Pojo;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+
+public class IndexedPropertyFilterTest {
+
+    private static List<PropertyWriter> writers(Class<?> clazz) throws Exception {
+        ObjectMapper objectMapper = new ObjectMapper();
+        DefaultSerializerProvider provider = ((DefaultSerializerProvider) objectMapper.getSerializerProvider())
+                .createInstance(objectMapper.getSerializationConfig(), objectMapper.getSerializerFactory());
+        JsonSerializer<Object> serializer = provider.findValueSerializer(clazz, null);
+        List<PropertyWriter> writers = new ArrayList<>();
+        for (Iterator<PropertyWriter> it = serializer.properties(); it.hasNext(); ) {
+            writers.add(it.next());
+        }
+        return writers;
+    }
+
+    @Test
+    public void includeTest() throws Exception {
+        IndexedPropertyFilter filter = new IndexedPropertyFilter(
+                JacksonClassAttributeCache.getPropertyIndex(Pojo.class), Arrays.asList("a", "c"));
+
+        for (PropertyWriter writer : writers(Pojo.class)) {
+            Assert.assertEquals(writer.getName(), !writer.getName().equals("b"), filter.include(writer));
+        }
+    }
+
+    @Test
+    public void includeDoesNotAllocateTest() throws Exception {
+        IndexedPropertyFilter filter = new IndexedPropertyFilter(
+                JacksonClassAttributeCache.getPropertyIndex(Pojo.class), Arrays.asList("a", "c"));
+        PropertyWriter[] writers = writers(Pojo.class).toArray(new PropertyWriter[0]);
+
+        java.lang.management.ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+        Assume.assumeTrue(threadBean instanceof com.sun.management.ThreadMXBean);
+        com.sun.management.ThreadMXBean allocations = (com.sun.management.ThreadMXBean) threadBean;
+        long threadId = Thread.currentThread().getId();
+
+        int included = 0;
+        // warm up, the first call per writer fills the identity table
+        for (int i = 0; i < 100000; i++) {
+            included += filter.include(writers[i % writers.length]) ? 1 : 0;
+        }
+
+        int fields = 400000;
+        long before = allocations.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < fields; i++) {
+            included += filter.include(writers[i % writers.length]) ? 1 : 0;
+        }
+        long allocated = allocations.getThreadAllocatedBytes(threadId) - before;
+
+        System.out.println(fields + " include decisions allocated " + allocated + " bytes, included " + included);
+        // getThreadAllocatedBytes itself allocates a little, anything per field would be megabytes
+        Assert.assertTrue("allocated " + allocated + " bytes", allocated < 1024);
+    }
+
+}
@@ -0,0 +1,169 @@
+package rk.prod.jackson;
+
+import com.fasterxml.jackson.databind.type.TypeFactory;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+import rk.prod.jackson.datatype.Pojo;
+import rk.prod.jackson.datatype.Pojo2;
+import rk.prod.jackson.datatype.Pojo3;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.ref.WeakReference;
+import java.util.Map;
+
+public class JacksonClassAttributeCacheTest {
+
+    @After
+    public void after() {
+        JacksonClassAttributeCache.setLazyMetadata(false);
+        JacksonClassAttributeCache.setCacheFactory(new DefaultMetadataCacheFactory());
+    }
+
+    @Test
+    public void boundedSpecCacheTest() {
+        JacksonClassAttributeCache.setCacheFactory(new DefaultMetadataCacheFactory(2));
+
+        JacksonClassAttributeCache.generateClassLevelJsonAttribute(Pojo.class, "a");
+        JacksonClassAttributeCache.generateClassLevelJsonAttribute(Pojo.class, "b");
+        JacksonClassAttributeCache.generateClassLevelJsonAttribute(Pojo.class, "c.a");
+        JacksonClassAttributeCache.generateClassLevelJsonAttribute(Pojo.class, "c.a");
+
+        MetadataCacheStats stats = JacksonClassAttributeCache.stats().get("cacheGlobal");
+        System.out.println(stats);
+        Assert.assertEquals(2, stats.getSize());
+        Assert.assertEquals(1, stats.getEvictionCount());
+        Assert.assertEquals(1, stats.getHitCount());
+        Assert.assertEquals(3, stats.getMissCount());
+    }
+
+    @Test
+    public void classLoaderNotRetainedTest() throws Exception {
+        WeakReference<ClassLoader> loader = compileSpecsInOwnClassLoader();
+        for (int i = 0; i < 50 && loader.get() != null; i++) {
+            // Jackson's own type cache keeps the last resolved classes
+            TypeFactory.defaultInstance().clearCache();
+            System.gc();
+            Thread.sleep(20);
+        }
+        Assert.assertNull(loader.get());
+    }
+
+    private static WeakReference<ClassLoader> compileSpecsInOwnClassLoader() throws Exception {
+        ClassLoader loader = new DatatypeClassLoader();
+        Class<?> pojo = loader.loadClass(Pojo.class.getName());
+        Assert.assertNotSame(Pojo.class, pojo);
+        JacksonClassAttributeCache.generateClassLevelJsonAttribute(pojo, "a", "c.c.a");
+        JacksonClassAttributeCache.generatePathTrie(pojo, "a", "c.c.a");
+        NestedBeanPropertyFilter.filterOutAllExcept(pojo, "a", "c.a");
+        Assert.assertTrue(JacksonClassAttributeCache.stats().get("cacheGlobal").getSize() > 0);
+        Assert.assertTrue(JacksonClassAttributeCache.stats().get("cachePathTrie").getSize() > 0);
+        return new WeakReference<>(loader);
+    }
+
+    /*
+     * loads its own copy of the test datatypes, like a redeployed application
+     */
+    private static final class DatatypeClassLoader extends ClassLoader {
+
+        DatatypeClassLoader() {
+            super(JacksonClassAttributeCacheTest.class.getClassLoader());
+        }
+
+        @Override
+        protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+            if (!name.startsWith(Pojo.class.getPackage().getName() + ".")) {
+                return super.loadClass(name, resolve);
+            }
+            synchronized (getClassLoadingLock(name)) {
+                Class<?> clazz = findLoadedClass(name);
+                if (clazz == null) {
+                    try (InputStream in = getParent().getResourceAsStream(name.replace('.', '/') + ".class")) {
+                        byte[] bytes = new byte[in.available()];
+                        int read = 0;
+                        while (read < bytes.length) {
+                            read += in.read(bytes, read, bytes.length - read);
+                        }
+                        clazz = defineClass(name, bytes, 0, bytes.length);
+                    } catch (IOException e) {
+                        throw new ClassNotFoundException(name, e);
+                    }
+                }
+                return clazz;
+            }
+        }
+    }
+
+    @Test
+    public void invalidateClassLoaderLazyTest() throws Exception {
+        JacksonClassAttributeCache.setLazyMetadata(true);
+        NestedBeanPropertyFilter.filterOutAllExcept(Pojo.class, "a", "c.a");
+        Map<String, MetadataCacheStats> before = JacksonClassAttributeCache.stats();
+
+        ClassLoader loader = new DatatypeClassLoader();
+        Class<?> pojo = loader.loadClass(Pojo.class.getName());
+        NestedBeanPropertyFilter.filterOutAllExcept(pojo, "a", "c.a");
+        NestedBeanPropertyFilter.union(NestedBeanPropertyFilter.filterOutAllExceptByPath(pojo, "a", "c.c.a"),
+                NestedBeanPropertyFilter.filterOutAllExceptByPath(pojo, "b"));
+        Assert.assertTrue(JacksonClassAttributeCache.stats().get("lazyAttrMap").getSize()
+                > before.get("lazyAttrMap").getSize());
+
+        JacksonClassAttributeCache.invalidate(loader);
+
+        // the metadata of Pojo stays, nothing of the class loader is left
+        Map<String, MetadataCacheStats> after = JacksonClassAttributeCache.stats();
+        for (String cache : new String[]{"lazyAttrMap", "propertyIndexMap", "cacheGlobal"}) {
+            Assert.assertEquals(cache, before.get(cache).getSize(), after.get(cache).getSize());
+        }
+        for (String cache : new String[]{"cachePathTrie", "filterMap", "combinedFilterMap"}) {
+            Assert.assertEquals(cache, 0, after.get(cache).getSize());
+        }
+    }
+
+    @Test
+    public void invalidateNestedClassTest() {
+        Map<Class<?>, JacksonClassAttribute> before = JacksonClassAttributeCache.generateClassLevelJsonAttribute(Pojo.class, "a", "c.c.a");
+        Assert.assertSame(before, JacksonClassAttributeCache.generateClassLevelJsonAttribute(Pojo.class, "a", "c.c.a"));
+
+        // Pojo3 is nested in Pojo, so the root and its specs are dropped too
+        JacksonClassAttributeCache.invalidate(Pojo3.class);
+
+        Map<String, MetadataCacheStats> stats = JacksonClassAttributeCache.stats();
+        Assert.assertEquals(0, stats.get("cacheGlobal").getSize());
+        Assert.assertEquals(0, stats.get("rootEntityNestedAttrMap").getSize());
+        Assert.assertNotSame(before, JacksonClassAttributeCache.generateClassLevelJsonAttribute(Pojo.class, "a", "c.c.a"));
+    }
+
+    @Test
+    public void invalidateNestedClassPathTrieTest() {
+        // Pojo -> Pojo2 -> Pojo3, the node of Pojo2 is cached on its own and reaches Pojo3
+        PathTrieNode before = JacksonClassAttributeCache.generatePathTrie(Pojo.class, "a", "c.c.a");
+        PathTrieNode pojo3Before = before.child("c").child("c");
+        Assert.assertSame(pojo3Before, JacksonClassAttributeCache.generatePathTrie(Pojo.class, "a", "c.c.a").child("c").child("c"));
+
+        JacksonClassAttributeCache.invalidate(Pojo3.class);
+
+        PathTrieNode after = JacksonClassAttributeCache.generatePathTrie(Pojo.class, "a", "c.c.a");
+        Assert.assertNotSame(before, after);
+        Assert.assertNotSame(before.child("c"), after.child("c"));
+        Assert.assertNotSame(pojo3Before, after.child("c").child("c"));
+    }
+
+    @Test
+    public void lazyMetadataTest() {
+        JacksonClassAttributeCache.setLazyMetadata(true);
+
+        Map<Class<?>, JacksonClassAttribute> classLevel = JacksonClassAttributeCache.generateClassLevelJsonAttribute(Pojo.class, "a", "c.a");
+
+        Assert.assertEquals(2, classLevel.size());
+        Assert.assertEquals(1, classLevel.get(Pojo2.class).getAttributes().size());
+        // Pojo3 is reachable but never reached by a path
+        LazyJacksonClassAttribute pojo3 = (LazyJacksonClassAttribute) JacksonClassAttributeCache.getLazyJsonAttribute(Pojo3.class);
+        Assert.assertFalse(pojo3.isResolved());
+
+        JacksonClassAttributeCache.generateClassLevelJsonAttribute(Pojo.class, "c.c.a");
+        Assert.assertTrue(pojo3.isResolved());
+    }
+
+}
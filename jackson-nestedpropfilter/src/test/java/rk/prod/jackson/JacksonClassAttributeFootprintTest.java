@@ -0,0 +1,75 @@
+package rk.prod.jackson;
+
+import org.junit.Assert;
+import org.junit.Test;
+import rk.prod.jackson.datatype.Catalog;
+import rk.prod.jackson.datatype.Pojo3;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+public class JacksonClassAttributeFootprintTest {
+
+    private static final int SPECS = 5000;
+
+    // measured about 490 KB per 1000 specs with frozen attributes, 1350 KB before, the
+    // budget leaves room for JVM differences
+    private static final long MAX_BYTES_PER_1000_SPECS = 800 * 1024;
+
+    @Test
+    public void frozenTest() {
+        Map<Class<?>, JacksonClassAttribute> classLevel = JacksonClassAttributeCache.generateClassLevelJsonAttribute(
+                Catalog.class, "name", "items[0:2].a");
+        JacksonClassAttribute catalog = classLevel.get(Catalog.class);
+
+        Assert.assertTrue(catalog.isFrozen());
+        Assert.assertEquals(PropertySlice.of(0, 2), catalog.getOptions("items").getSlice());
+        Assert.assertSame(classLevel.get(Pojo3.class), catalog.getAttributes().get("items"));
+        Assert.assertTrue(classLevel.get(Pojo3.class).getAttributes().containsKey("a"));
+        try {
+            catalog.getAttributes().put("tags", null);
+            Assert.fail();
+        } catch (UnsupportedOperationException e) {
+            // expected
+        }
+    }
+
+    private static long usedHeapAfterGc(MemoryMXBean memory) throws InterruptedException {
+        for (int i = 0; i < 5; i++) {
+            System.gc();
+            Thread.sleep(20);
+        }
+        return memory.getHeapMemoryUsage().getUsed();
+    }
+
+    /*
+     * retained heap of the compiled class level metadata of cached specs (with their cache entries),
+     * every spec differs in a slice so nothing is shared between them but the property names and
+     * the unfiltered metadata, a few thousand specs keep the heap measurement stable
+     */
+    @Test
+    public void retainedBytesPer1000SpecsTest() throws InterruptedException {
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        JacksonClassAttributeCache.generateClassLevelJsonAttribute(Catalog.class, "name", "items.a", "tags");
+        FilterSpec[] specs = new FilterSpec[SPECS];
+        for (int i = 0; i < SPECS; i++) {
+            specs[i] = FilterSpec.of("name", "items[0:" + (i + 1) + "].a", "items.b", "tags[" + i + ":]");
+        }
+
+        List<Map<Class<?>, JacksonClassAttribute>> retained = new ArrayList<>(SPECS);
+        long before = usedHeapAfterGc(memory);
+        for (FilterSpec spec : specs) {
+            retained.add(JacksonClassAttributeCache.generateClassLevelJsonAttribute(Catalog.class, spec));
+        }
+        long after = usedHeapAfterGc(memory);
+
+        long bytesPer1000Specs = (after - before) * 1000 / SPECS;
+        System.out.println(retained.size() + " specs retain " + (after - before) + " bytes, "
+                + bytesPer1000Specs + " per 1000 specs");
+        Assert.assertTrue(bytesPer1000Specs + " bytes per 1000 specs", bytesPer1000Specs < MAX_BYTES_PER_1000_SPECS);
+    }
+
+}
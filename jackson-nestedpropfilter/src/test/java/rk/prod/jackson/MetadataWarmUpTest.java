@@ -0,0 +1,61 @@
+package rk.prod.jackson;
+
+import org.junit.Assert;
+import org.junit.Test;
+import rk.prod.jackson.datatype.Address;
+import rk.prod.jackson.datatype.Order;
+import rk.prod.jackson.datatype.Pojo;
+import rk.prod.jackson.datatype.Pojo2;
+import rk.prod.jackson.datatype.Pojo3;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+public class MetadataWarmUpTest {
+
+    @Test
+    public void warmUpPackageTest() {
+        WarmUpReport report = MetadataWarmUp.warmUp("rk.prod.jackson.datatype");
+
+        System.out.println(report);
+
+        Assert.assertTrue(report.getNanosPerClass().keySet().containsAll(
+                Arrays.<Class<?>>asList(Pojo.class, Pojo2.class, Pojo3.class, Order.class, Address.class)));
+        Assert.assertTrue(report.getFailures().isEmpty());
+    }
+
+    @Test
+    public void singleFlightTest() throws Exception {
+        JacksonClassAttributeCache.setCacheFactory(new DefaultMetadataCacheFactory());
+        final int threads = 16;
+        final CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<PathTrieNode>> results = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                results.add(executor.submit(new Callable<PathTrieNode>() {
+                    @Override
+                    public PathTrieNode call() throws Exception {
+                        start.await();
+                        return JacksonClassAttributeCache.generatePathTrie(Order.class, "id", "billing.*");
+                    }
+                }));
+            }
+            start.countDown();
+            for (Future<PathTrieNode> result : results) {
+                Assert.assertSame(results.get(0).get(), result.get());
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        Assert.assertEquals(1, JacksonClassAttributeCache.stats().get("rootEntityNestedAttrMap").getLoadCount());
+    }
+
+}
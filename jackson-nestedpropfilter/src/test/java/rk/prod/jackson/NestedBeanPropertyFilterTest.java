@@ -8,9 +8,17 @@ import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.TestName;
+import rk.prod.jackson.datatype.Address;
+import rk.prod.jackson.datatype.Category;
+import rk.prod.jackson.datatype.Order;
 import rk.prod.jackson.datatype.Pojo;
 import rk.prod.jackson.datatype.Pojo2;
 import rk.prod.jackson.datatype.Pojo3;
+import rk.prod.jackson.datatype.Renamed;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 /**
  * Created by igreenfi on 11/13/2016.
@@ -98,4 +106,216 @@ public class NestedBeanPropertyFilterTest {
         Assert.assertEquals("{\"a\":\"a\",\"b\":2,\"c\":{\"a\":\"c.a\",\"b\":4,\"c\":{\"a\":\"c.c.a\",\"b\":7}}}", valueAsString);
     }
 
+    @Test
+    public void serializeByPathTest() throws JsonProcessingException {
+        ObjectMapper objectMapper = new ObjectMapper();
+
+        objectMapper.setFilterProvider(new NestedPropertyFilterProvider().addFilter("nestedPropertyFilter",
+                NestedBeanPropertyFilter.filterOutAllExceptByPath(Pojo.class, "a", "c.c.*", "c.a")));
+
+        String valueAsString = objectMapper.writeValueAsString(pojo);
+
+        System.out.println(valueAsString);
+
+        Assert.assertEquals("{\"a\":\"a\",\"c\":{\"a\":\"c.a\",\"c\":{\"a\":\"c.c.a\",\"b\":7}}}", valueAsString);
+    }
+
+    @Test
+    public void serializeSameClassAtTwoPathsTest() throws JsonProcessingException {
+        Order order = new Order("o1", new Address("b street", "b city", "b zip"), new Address("s street", "s city", "s zip"));
+
+        ObjectMapper objectMapper = new ObjectMapper();
+
+        objectMapper.setFilterProvider(new NestedPropertyFilterProvider().addFilter("nestedPropertyFilter",
+                NestedBeanPropertyFilter.filterOutAllExceptByPath(Order.class, "id", "billing.zip", "shipping.street", "shipping.city")));
+
+        String valueAsString = objectMapper.writeValueAsString(order);
+
+        System.out.println(valueAsString);
+
+        Assert.assertEquals("{\"id\":\"o1\",\"billing\":{\"zip\":\"b zip\"},\"shipping\":{\"street\":\"s street\",\"city\":\"s city\"}}",
+                valueAsString);
+    }
+
+    @Test
+    public void serializeSameClassAtTwoPathsClassLevelTest() throws JsonProcessingException {
+        Order order = new Order("o1", new Address("b street", "b city", "b zip"), new Address("s street", "s city", "s zip"));
+
+        ObjectMapper objectMapper = new ObjectMapper();
+
+        // class level, both addresses get the union of the address properties
+        objectMapper.setFilterProvider(new NestedPropertyFilterProvider().addFilter("nestedPropertyFilter",
+                NestedBeanPropertyFilter.filterOutAllExcept(Order.class, "id", "billing.zip", "shipping.street")));
+
+        Assert.assertEquals("{\"id\":\"o1\",\"billing\":{\"street\":\"b street\",\"zip\":\"b zip\"},\"shipping\":{\"street\":\"s street\",\"zip\":\"s zip\"}}",
+                objectMapper.writeValueAsString(order));
+    }
+
+    @Test
+    public void serializeSameClassAtTwoPathsClassLevelUnionTest() throws JsonProcessingException {
+        Order order = new Order("o1", new Address("b street", "b city", "b zip"), new Address("s street", "s city", "s zip"));
+        String union = "{\"id\":\"o1\",\"billing\":{\"street\":\"b street\",\"zip\":\"b zip\"},\"shipping\":{\"street\":\"s street\",\"zip\":\"s zip\"}}";
+
+        // the union does not depend on the order of the paths
+        Assert.assertEquals(union, writeClassLevel(order, "shipping.street", "billing.zip", "id"));
+
+        // a wildcard at one path selects every property of the class at both paths
+        Assert.assertEquals("{\"id\":\"o1\",\"billing\":{\"street\":\"b street\",\"city\":\"b city\",\"zip\":\"b zip\"},"
+                        + "\"shipping\":{\"street\":\"s street\",\"city\":\"s city\",\"zip\":\"s zip\"}}",
+                writeClassLevel(order, "id", "billing.*", "shipping.zip"));
+
+        // lazy metadata builds the same union
+        JacksonClassAttributeCache.setLazyMetadata(true);
+        try {
+            JacksonClassAttributeCache.invalidateAll();
+            Assert.assertEquals(union, writeClassLevel(order, "id", "billing.zip", "shipping.street"));
+        } finally {
+            JacksonClassAttributeCache.setLazyMetadata(false);
+            JacksonClassAttributeCache.invalidateAll();
+        }
+    }
+
+    private static String writeClassLevel(Order order, String... paths) throws JsonProcessingException {
+        ObjectMapper objectMapper = new ObjectMapper();
+        objectMapper.setFilterProvider(new NestedPropertyFilterProvider().addFilter("nestedPropertyFilter",
+                NestedBeanPropertyFilter.filterOutAllExcept(Order.class, paths)));
+        return objectMapper.writeValueAsString(order);
+    }
+
+    @Test
+    public void serializeFieldSelectionTest() throws JsonProcessingException {
+        ObjectMapper objectMapper = new ObjectMapper();
+
+        objectMapper.setFilterProvider(new NestedPropertyFilterProvider().addFilter("nestedPropertyFilter",
+                NestedBeanPropertyFilter.filterOutAllExceptFields(Pojo.class, "a,c(a,c(*))")));
+
+        Assert.assertEquals("{\"a\":\"a\",\"c\":{\"a\":\"c.a\",\"c\":{\"a\":\"c.c.a\",\"b\":7}}}",
+                objectMapper.writeValueAsString(pojo));
+    }
+
+    @Test
+    public void serializeAllExceptTest() throws JsonProcessingException {
+        ObjectMapper objectMapper = new ObjectMapper();
+
+        objectMapper.setFilterProvider(new NestedPropertyFilterProvider().addFilter("nestedPropertyFilter",
+                NestedBeanPropertyFilter.serializeAllExcept(Pojo.class, "b", "c.c.b")));
+
+        Assert.assertEquals("{\"a\":\"a\",\"c\":{\"a\":\"c.a\",\"b\":4,\"c\":{\"a\":\"c.c.a\"}}}",
+                objectMapper.writeValueAsString(pojo));
+
+        // mixed include and exclude
+        objectMapper.setFilterProvider(new NestedPropertyFilterProvider().addFilter("nestedPropertyFilter",
+                NestedBeanPropertyFilter.filterOutAllExcept(Pojo.class, "a", "c.*", "!c.b", "c.!c")));
+
+        Assert.assertEquals("{\"a\":\"a\",\"c\":{\"a\":\"c.a\"}}", objectMapper.writeValueAsString(pojo));
+    }
+
+    @Test
+    public void serializeAllExceptByPathTest() throws JsonProcessingException {
+        Category root = new Category("root", 1, null);
+        Category child = new Category("child", 2, root);
+
+        ObjectMapper objectMapper = new ObjectMapper();
+
+        objectMapper.setFilterProvider(new NestedPropertyFilterProvider().addFilter("nestedPropertyFilter",
+                NestedBeanPropertyFilter.serializeAllExceptByPath(Category.class, "rank", "parent.parent", "parent.children")));
+
+        String valueAsString = objectMapper.writeValueAsString(child);
+
+        System.out.println(valueAsString);
+
+        Assert.assertEquals("{\"name\":\"child\",\"parent\":{\"name\":\"root\",\"rank\":1},\"children\":[]}", valueAsString);
+    }
+
+    @Test
+    public void serializeWithLazyMetadataTest() throws JsonProcessingException {
+        JacksonClassAttributeCache.setLazyMetadata(true);
+        try {
+            ObjectMapper objectMapper = new ObjectMapper();
+
+            objectMapper.setFilterProvider(new NestedPropertyFilterProvider().addFilter("nestedPropertyFilter",
+                    NestedBeanPropertyFilter.filterOutAllExcept(Pojo.class, "a", "c.c.*", "c.a")));
+
+            Assert.assertEquals("{\"a\":\"a\",\"c\":{\"a\":\"c.a\",\"c\":{\"a\":\"c.c.a\",\"b\":7}}}",
+                    objectMapper.writeValueAsString(pojo));
+        } finally {
+            JacksonClassAttributeCache.setLazyMetadata(false);
+        }
+    }
+
+    @Test
+    public void serializeSelfReferenceTest() throws JsonProcessingException {
+        Category root = new Category("root", 1, null);
+        Category child = new Category("child", 2, root);
+
+        ObjectMapper objectMapper = new ObjectMapper();
+
+        objectMapper.setFilterProvider(new NestedPropertyFilterProvider().addFilter("nestedPropertyFilter",
+                NestedBeanPropertyFilter.filterOutAllExceptByPath(Category.class, "name", "parent.name", "parent.rank")));
+
+        String valueAsString = objectMapper.writeValueAsString(child);
+
+        System.out.println(valueAsString);
+
+        Assert.assertEquals("{\"name\":\"child\",\"parent\":{\"name\":\"root\",\"rank\":1}}", valueAsString);
+    }
+
+    @Test
+    public void serializeSelfReferenceWithAstrixTest() throws JsonProcessingException {
+        // the metadata is cyclic, the data is not
+        Category root = new Category("root", 1, null);
+        root.getChildren().add(new Category("child", 2, null));
+
+        ObjectMapper objectMapper = new ObjectMapper();
+
+        objectMapper.setFilterProvider(new NestedPropertyFilterProvider().addFilter("nestedPropertyFilter",
+                NestedBeanPropertyFilter.filterOutAllExceptByPath(Category.class, "children.*")));
+
+        String valueAsString = objectMapper.writeValueAsString(root);
+
+        System.out.println(valueAsString);
+
+        Assert.assertEquals("{\"children\":[{\"name\":\"child\",\"rank\":2,\"parent\":null,\"children\":[]}]}", valueAsString);
+        Assert.assertNotNull(NestedBeanPropertyFilter.filterOutAllExcept(Category.class, "*"));
+    }
+
+    @Test
+    public void serializeJacksonPropertyNamesTest() throws JsonProcessingException {
+        Renamed renamed = new Renamed("name", "secret", Collections.singletonMap("k", new Pojo3("k.a", 1)),
+                new Pojo3[]{new Pojo3("0.a", 2)});
+
+        ObjectMapper objectMapper = new ObjectMapper();
+
+        objectMapper.setFilterProvider(new NestedPropertyFilterProvider().addFilter("nestedPropertyFilter",
+                NestedBeanPropertyFilter.filterOutAllExcept(Renamed.class, "full_name", "secret", "byKey.a", "array.a")));
+
+        String valueAsString = objectMapper.writeValueAsString(renamed);
+
+        System.out.println(valueAsString);
+
+        Assert.assertEquals("{\"byKey\":{\"k\":{\"a\":\"k.a\"}},\"array\":[{\"a\":\"0.a\"}],\"full_name\":\"name\"}",
+                valueAsString);
+    }
+
+    @Test
+    public void serializeMapValuesByPathTest() throws JsonProcessingException {
+        Map<String, Pojo3> byKey = new LinkedHashMap<>();
+        byKey.put("k", new Pojo3("k.a", 1));
+        byKey.put("l", new Pojo3("l.a", 2));
+        Renamed renamed = new Renamed("name", "secret", byKey, new Pojo3[]{new Pojo3("0.a", 3)});
+
+        ObjectMapper objectMapper = new ObjectMapper();
+
+        // the map keys are not path segments, the values are reached through byKey
+        objectMapper.setFilterProvider(new NestedPropertyFilterProvider().addFilter("nestedPropertyFilter",
+                NestedBeanPropertyFilter.filterOutAllExceptByPath(Renamed.class, "full_name", "byKey.a", "array.b")));
+
+        Assert.assertEquals("{\"byKey\":{\"k\":{\"a\":\"k.a\"},\"l\":{\"a\":\"l.a\"}},\"array\":[{\"b\":3}],\"full_name\":\"name\"}",
+                objectMapper.writeValueAsString(renamed));
+        // a map at the root
+        Assert.assertEquals("{\"k\":{\"b\":1},\"l\":{\"b\":2}}", objectMapper.writer(new NestedPropertyFilterProvider()
+                .addFilter("nestedPropertyFilter", NestedBeanPropertyFilter.filterOutAllExceptByPath(Pojo3.class, "b")))
+                .writeValueAsString(byKey));
+    }
+
 }
@@ -0,0 +1,88 @@
+package rk.prod.jackson;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import org.junit.Assert;
+import org.junit.Test;
+import rk.prod.jackson.datatype.Address;
+import rk.prod.jackson.datatype.Pojo;
+import rk.prod.jackson.datatype.Pojo2;
+import rk.prod.jackson.datatype.Pojo3;
+
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+
+public class NestedFilterMetricsTest {
+
+    static {
+        // read once when NestedFilterMetrics is loaded, every test class runs in its own JVM
+        System.setProperty(NestedFilterMetrics.ENABLED_PROPERTY, "true");
+    }
+
+    Pojo pojo = new Pojo("a", 2, new Pojo2("c.a", 4, new Pojo3("c.c.a", 7)));
+
+    @Test
+    public void countersTest() throws Exception {
+        Assert.assertTrue(NestedFilterMetrics.ENABLED);
+        JacksonClassAttributeCache.invalidateAll();
+        NestedFilterMetrics.reset();
+        final List<Class<?>> built = new ArrayList<>();
+        NestedFilterMetrics.addListener(new NestedFilterMetricsListener() {
+            @Override
+            public void metadataBuilt(Class<?> clazz, long nanos) {
+                built.add(clazz);
+            }
+
+            @Override
+            public void filterCreated(Class<?> rootClass) {
+            }
+
+            @Override
+            public void defaultFilterFallback(Object filterId, Class<?> clazz) {
+            }
+        });
+
+        NestedBeanPropertyFilter filter = (NestedBeanPropertyFilter) NestedBeanPropertyFilter.filterOutAllExcept(
+                Pojo.class, "a", "c.a");
+        NestedBeanPropertyFilter byPath = (NestedBeanPropertyFilter) NestedBeanPropertyFilter.filterOutAllExceptByPath(
+                Pojo.class, "a", "c.a");
+
+        ObjectMapper objectMapper = new ObjectMapper();
+        objectMapper.writer(new NestedPropertyFilterProvider().addFilter("nestedPropertyFilter", filter))
+                .writeValueAsString(pojo);
+        objectMapper.writer(new NestedPropertyFilterProvider().addFilter("nestedPropertyFilter", byPath))
+                .writeValueAsString(pojo);
+
+        // a, c included, b excluded on Pojo, a included and b, c excluded on Pojo2
+        Assert.assertEquals(3, filter.getCounters().getIncluded());
+        Assert.assertEquals(3, filter.getCounters().getExcluded());
+        Assert.assertEquals(3, byPath.getCounters().getIncluded());
+        Assert.assertEquals(3, byPath.getCounters().getExcluded());
+        Assert.assertEquals(6, NestedFilterMetrics.getIncludedFieldCount());
+        Assert.assertEquals(2, NestedFilterMetrics.getFiltersCreated());
+        Assert.assertTrue(NestedFilterMetrics.getLiveFilterCount() >= 2);
+        Assert.assertEquals(1, NestedFilterMetrics.getMetadataBuildCount());
+        Assert.assertEquals(Pojo.class, built.get(0));
+
+        ObjectName name = new ObjectName(NestedFilterMetrics.OBJECT_NAME);
+        Assert.assertEquals(6L, ManagementFactory.getPlatformMBeanServer().getAttribute(name, "IncludedFieldCount"));
+        Assert.assertEquals(1L, ManagementFactory.getPlatformMBeanServer().getAttribute(name, "CacheGlobalSize"));
+    }
+
+    @Test
+    public void defaultFilterFallbackTest() throws JsonProcessingException {
+        ObjectMapper objectMapper = new ObjectMapper();
+        objectMapper.setFilterProvider(new NestedPropertyFilterProvider()
+                .addFilter("nestedPropertyFilter", NestedBeanPropertyFilter.filterOutAllExcept(Pojo.class, "a"))
+                .setDefaultFilter(SimpleBeanPropertyFilter.serializeAll()));
+
+        long before = NestedFilterMetrics.getDefaultFilterFallbackCount();
+        objectMapper.writeValueAsString(new Address("street", "city", "zip"));
+
+        Assert.assertEquals(before + 1, NestedFilterMetrics.getDefaultFilterFallbackCount());
+    }
+
+}
@@ -0,0 +1,68 @@
+package rk.prod.jackson;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.Assert;
+import org.junit.Test;
+import rk.prod.jackson.datatype.Pojo;
+
+import java.io.IOException;
+
+public class NestedPropertyDeserializationModuleTest {
+
+    static class PojoSubclass extends Pojo {
+    }
+
+    private static final String JSON = "{\"a\":\"a\",\"b\":2,\"c\":{\"a\":\"c.a\",\"b\":4,\"c\":{\"a\":\"c.c.a\",\"b\":7}}}";
+
+    @Test
+    public void deserializeSelectedOnlyTest() throws IOException {
+        ObjectMapper objectMapper = new ObjectMapper()
+                .registerModule(new NestedPropertyDeserializationModule(Pojo.class, "a", "c.a"));
+
+        Pojo pojo = objectMapper.readValue(JSON, Pojo.class);
+
+        Assert.assertEquals("a", pojo.getA());
+        Assert.assertNull(pojo.getB());
+        Assert.assertEquals("c.a", pojo.getC().getA());
+        Assert.assertNull(pojo.getC().getB());
+        // the whole c.c subtree is skipped
+        Assert.assertNull(pojo.getC().getC());
+    }
+
+    @Test
+    public void deserializeWithAstrixTest() throws IOException {
+        ObjectMapper objectMapper = new ObjectMapper()
+                .registerModule(new NestedPropertyDeserializationModule(Pojo.class, "c.c.*"));
+
+        Pojo pojo = objectMapper.readValue(JSON, Pojo.class);
+
+        Assert.assertNull(pojo.getA());
+        Assert.assertNull(pojo.getC().getA());
+        Assert.assertEquals("c.c.a", pojo.getC().getC().getA());
+        Assert.assertEquals(Integer.valueOf(7), pojo.getC().getC().getB());
+    }
+
+    @Test
+    public void deserializeSubclassTest() throws IOException {
+        ObjectMapper objectMapper = new ObjectMapper()
+                .registerModule(new NestedPropertyDeserializationModule(Pojo.class, "a", "c.a"));
+
+        Pojo pojo = objectMapper.readValue(JSON, PojoSubclass.class);
+
+        Assert.assertEquals("a", pojo.getA());
+        Assert.assertNull(pojo.getB());
+        Assert.assertEquals("c.a", pojo.getC().getA());
+        Assert.assertNull(pojo.getC().getC());
+    }
+
+    @Test
+    public void registeredNextToFilterModuleTest() throws IOException {
+        ObjectMapper objectMapper = new ObjectMapper()
+                .registerModule(new NestedPropertyFilterModule(Pojo.class, "a", "c.a"))
+                .registerModule(new NestedPropertyDeserializationModule(Pojo.class, "a", "c.a"));
+
+        Assert.assertEquals("{\"a\":\"a\",\"c\":{\"a\":\"c.a\"}}",
+                objectMapper.writeValueAsString(objectMapper.readValue(JSON, Pojo.class)));
+    }
+
+}
@@ -0,0 +1,72 @@
+package rk.prod.jackson;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.junit.Assert;
+import org.junit.Test;
+import rk.prod.jackson.datatype.Pojo;
+import rk.prod.jackson.datatype.Pojo2;
+import rk.prod.jackson.datatype.Pojo3;
+
+public class NestedPropertyFilterModuleTest {
+
+    // what a Hibernate proxy of Pojo looks like to the module
+    static class PojoProxy extends Pojo {
+        PojoProxy(String a, Integer b, Pojo2 c) {
+            super(a, b, c);
+        }
+    }
+
+    Pojo pojo = new Pojo("a", 2, new Pojo2("c.a", 4, new Pojo3("c.c.a", 7)));
+
+    @Test
+    public void serializeWithoutFilterProviderTest() throws JsonProcessingException {
+        // no FilterProvider, @JsonFilter on the pojos is ignored for pruned classes
+        ObjectMapper objectMapper = new ObjectMapper()
+                .registerModule(new NestedPropertyFilterModule(Pojo.class, "a", "c.c.*", "c.a"));
+
+        String valueAsString = objectMapper.writeValueAsString(pojo);
+
+        System.out.println(valueAsString);
+
+        Assert.assertEquals("{\"a\":\"a\",\"c\":{\"a\":\"c.a\",\"c\":{\"a\":\"c.c.a\",\"b\":7}}}", valueAsString);
+    }
+
+    @Test
+    public void serializeWithAstrixTest() throws JsonProcessingException {
+        ObjectMapper objectMapper = new ObjectMapper()
+                .registerModule(new NestedPropertyFilterModule(Pojo.class, "a", "c.*"));
+
+        String valueAsString = objectMapper.writeValueAsString(pojo);
+
+        Assert.assertEquals("{\"a\":\"a\",\"c\":{\"a\":\"c.a\",\"b\":4,\"c\":{\"a\":\"c.c.a\",\"b\":7}}}", valueAsString);
+    }
+
+    @Test
+    public void serializeSubclassTest() throws JsonProcessingException {
+        // pruned like Pojo, without a FilterProvider its @JsonFilter would fail the write
+        ObjectMapper objectMapper = new ObjectMapper()
+                .registerModule(new NestedPropertyFilterModule(Pojo.class, "a", "c.a"));
+
+        Assert.assertEquals("{\"a\":\"a\",\"c\":{\"a\":\"c.a\"}}",
+                objectMapper.writeValueAsString(new PojoProxy("a", 2, new Pojo2("c.a", 4, null))));
+    }
+
+    @Test
+    public void serializeManySpecsFromOneMapperTest() throws JsonProcessingException {
+        ObjectMapper objectMapper = new ObjectMapper();
+        PrunedWriterCache writers = new PrunedWriterCache(objectMapper);
+
+        ObjectWriter top = writers.writerFor(Pojo.class, "a", "c.a");
+        ObjectWriter deep = writers.writerFor(Pojo.class, "b", "c.c.*");
+
+        Assert.assertEquals("{\"a\":\"a\",\"c\":{\"a\":\"c.a\"}}", top.writeValueAsString(pojo));
+        Assert.assertEquals("{\"b\":2,\"c\":{\"c\":{\"a\":\"c.c.a\",\"b\":7}}}", deep.writeValueAsString(pojo));
+
+        // the same spec, in any order, is served by the same writer
+        Assert.assertSame(top, writers.writerFor(Pojo.class, "c.a", "a"));
+        Assert.assertEquals(2, writers.size());
+    }
+
+}
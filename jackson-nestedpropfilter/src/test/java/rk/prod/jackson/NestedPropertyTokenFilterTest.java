@@ -0,0 +1,58 @@
+package rk.prod.jackson;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.Assert;
+import org.junit.Test;
+import rk.prod.jackson.datatype.Pojo;
+import rk.prod.jackson.datatype.Pojo2;
+import rk.prod.jackson.datatype.Pojo3;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+public class NestedPropertyTokenFilterTest {
+
+    private static String filter(String json, String... properties) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        NestedPropertyTokenFilter.filter(new JsonFactory(), new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)),
+                out, FilterSpec.of(properties));
+        return new String(out.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    @Test
+    public void filterTest() throws IOException {
+        String json = "{\"a\":1,\"b\":2,\"c\":{\"a\":3,\"b\":4,\"c\":{\"a\":5,\"b\":6}}}";
+
+        Assert.assertEquals("{\"a\":1,\"c\":{\"a\":3,\"c\":{\"a\":5,\"b\":6}}}", filter(json, "a", "c.a", "c.c.*"));
+        Assert.assertEquals("{\"c\":{\"b\":4,\"c\":{\"a\":5,\"b\":6}}}", filter(json, "c.b", "c.c"));
+        Assert.assertEquals(json, filter(json, "*"));
+        Assert.assertEquals("{\"a\":1,\"c\":{\"a\":3,\"b\":4,\"c\":{\"a\":5}}}", filter(json, "*", "!b", "!c.c.b"));
+    }
+
+    @Test
+    public void arrayTest() throws IOException {
+        String json = "{\"a\":1,\"items\":[{\"a\":1,\"b\":2},{\"a\":3,\"b\":4}],\"tags\":[\"x\",\"y\"]}";
+
+        Assert.assertEquals("{\"items\":[{\"b\":2},{\"b\":4}],\"tags\":[\"x\",\"y\"]}", filter(json, "items.b", "tags"));
+    }
+
+    @Test
+    public void sameAsBeanFilterTest() throws IOException {
+        Pojo pojo = new Pojo("a", 2, new Pojo2("c.a", 4, new Pojo3("c.c.a", 7)));
+        String[] properties = {"a", "c.c.*", "c.a"};
+
+        ObjectMapper objectMapper = new ObjectMapper();
+        objectMapper.setFilterProvider(new NestedPropertyFilterProvider().addFilter("nestedPropertyFilter",
+                NestedBeanPropertyFilter.filterOutAllExcept(Pojo.class, "*")));
+        String json = objectMapper.writeValueAsString(pojo);
+
+        objectMapper.setFilterProvider(new NestedPropertyFilterProvider().addFilter("nestedPropertyFilter",
+                NestedBeanPropertyFilter.filterOutAllExcept(Pojo.class, properties)));
+
+        Assert.assertEquals(objectMapper.writeValueAsString(pojo), filter(json, properties));
+    }
+
+}
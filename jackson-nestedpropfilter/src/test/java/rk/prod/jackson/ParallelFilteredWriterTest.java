@@ -0,0 +1,117 @@
+package rk.prod.jackson;
+
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.Test;
+import rk.prod.jackson.datatype.Address;
+import rk.prod.jackson.datatype.Order;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+public class ParallelFilteredWriterTest {
+
+    private static final ForkJoinPool pool = new ForkJoinPool(4);
+
+    private ObjectMapper objectMapper = new ObjectMapper();
+
+    private SimpleBeanPropertyFilter cityFilter = NestedBeanPropertyFilter.filterOutAllExcept(Address.class, "city");
+
+    private SimpleBeanPropertyFilter shippingFilter = NestedBeanPropertyFilter.filterOutAllExceptByPath(Order.class,
+            "id", "shipping.city", "billing.zip");
+
+    private FilteredWriterRegistry registry = new FilteredWriterRegistry(objectMapper)
+            .register("city", Address.class, cityFilter)
+            .register("shipping", Order.class, shippingFilter);
+
+    @AfterClass
+    public static void shutdown() {
+        pool.shutdown();
+    }
+
+    private static List<Address> addresses(int size) {
+        List<Address> addresses = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            addresses.add(new Address("s" + i, "c" + i, "z" + i));
+        }
+        return addresses;
+    }
+
+    // the single threaded output of the same filter
+    private String sequential(SimpleBeanPropertyFilter filter, Object value) throws IOException {
+        NestedPropertyFilterProvider filterProvider = new NestedPropertyFilterProvider();
+        filterProvider.addFilter(FilteredWriterRegistry.DEFAULT_FILTER_ID, filter);
+        return objectMapper.writer(filterProvider).writeValueAsString(value);
+    }
+
+    private ParallelFilteredWriter parallelWriter(String name, int chunkSize) {
+        return new ParallelFilteredWriter(registry.writer(name), pool, chunkSize);
+    }
+
+    @Test
+    public void chunkedTest() throws IOException {
+        List<Address> addresses = addresses(10007);
+        String expected = sequential(cityFilter, addresses);
+        for (int chunkSize : new int[]{1, 7, 100, 10007, 20000}) {
+            Assert.assertEquals(expected, new String(parallelWriter("city", chunkSize).writeValuesAsBytes(addresses), "UTF-8"));
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        parallelWriter("city", 100).writeValues(out, addresses.toArray());
+        Assert.assertEquals(expected, out.toString("UTF-8"));
+        Assert.assertEquals(expected, new String(parallelWriter("city", 100)
+                .writeValuesAsBytes(new LinkedHashSet<>(addresses)), "UTF-8"));
+    }
+
+    @Test
+    public void byPathTest() throws IOException {
+        List<Order> orders = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            orders.add(new Order(String.valueOf(i), new Address("s", "c", "z" + i), new Address("s2", "c" + i, "z2")));
+        }
+        Assert.assertEquals(sequential(shippingFilter, orders),
+                new String(parallelWriter("shipping", 64).writeValuesAsBytes(orders), "UTF-8"));
+    }
+
+    @Test
+    public void smallTest() throws IOException {
+        Assert.assertEquals("[]", new String(parallelWriter("city", 10).writeValuesAsBytes(
+                Collections.emptyList()), "UTF-8"));
+        Assert.assertEquals("[{\"city\":\"c0\"}]", new String(registry.parallelWriter("city").writeValuesAsBytes(
+                addresses(1)), "UTF-8"));
+    }
+
+    @Test
+    public void indentTest() throws IOException {
+        ObjectWriter writer = registry.writer("city").with(SerializationFeature.INDENT_OUTPUT);
+        Assert.assertEquals(sequential(cityFilter, addresses(50)), new String(new ParallelFilteredWriter(writer, pool, 8)
+                .writeValuesAsBytes(addresses(50)), "UTF-8"));
+    }
+
+    @Test(expected = JsonMappingException.class)
+    public void failingChunkTest() throws IOException {
+        List<Address> addresses = addresses(1000);
+        addresses.set(500, new Address("s", "c", "z") {
+            @Override
+            public String getCity() {
+                throw new IllegalStateException("broken");
+            }
+        });
+        parallelWriter("city", 10).writeValuesAsBytes(addresses);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void chunkSizeTest() {
+        parallelWriter("city", 0);
+    }
+
+}
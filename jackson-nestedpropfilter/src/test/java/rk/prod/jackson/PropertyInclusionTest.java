@@ -0,0 +1,168 @@
+package rk.prod.jackson;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import org.junit.Assert;
+import org.junit.Test;
+import rk.prod.jackson.datatype.Address;
+import rk.prod.jackson.datatype.Catalog;
+import rk.prod.jackson.datatype.Counted;
+import rk.prod.jackson.datatype.Memo;
+import rk.prod.jackson.datatype.Order;
+import rk.prod.jackson.datatype.Pojo3;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+public class PropertyInclusionTest {
+
+    private static final String ORDER = "{\"id\":\"1\",\"billing\":{\"city\":\"Berlin\"}}";
+
+    private static final String CATALOG = "{\"items\":[{\"a\":\"x\"},{\"a\":\"\",\"b\":1}]}";
+
+    Order order = new Order("1", new Address(null, "Berlin", null), null);
+
+    Catalog catalog = new Catalog("", Arrays.asList(new Pojo3("x", 0), new Pojo3("", 1), new Pojo3(null, null)),
+            new String[0]);
+
+    private static String write(Object value, SimpleFilterProvider filterProvider) throws JsonProcessingException {
+        ObjectMapper objectMapper = new ObjectMapper();
+        objectMapper.setFilterProvider(filterProvider);
+        return objectMapper.writeValueAsString(value);
+    }
+
+    private static SimpleFilterProvider provider(SimpleBeanPropertyFilter filter) {
+        return new NestedPropertyFilterProvider().addFilter("nestedPropertyFilter", filter);
+    }
+
+    @Test
+    public void canonicalTest() {
+        Assert.assertSame(FilterSpec.of("items[0:2]?NON_EMPTY.a"), FilterSpec.of(" items[ :2] ?non_empty . a"));
+        Assert.assertEquals(JsonInclude.Include.NON_NULL,
+                FilterSpec.of("billing?NON_NULL.city").options().get("billing").getInclusion());
+        // a plain path wins over the rule, the less strict rule wins
+        Assert.assertTrue(FilterSpec.of("billing?NON_NULL.city", "billing.zip").options().isEmpty());
+        Assert.assertEquals(JsonInclude.Include.NON_NULL,
+                FilterSpec.of("billing?NON_DEFAULT.city", "billing?NON_NULL.zip").options().get("billing").getInclusion());
+        for (String invalid : new String[]{"a?ALWAYS", "a?NON_ABSENT", "a?", "?NON_NULL", "*?NON_NULL", "!a?NON_NULL"}) {
+            try {
+                FilterSpec.of(invalid);
+                Assert.fail(invalid);
+            } catch (IllegalArgumentException e) {
+                // expected
+            }
+        }
+    }
+
+    @Test
+    public void unionIntersectTest() {
+        PropertyOptions nonNull = PropertyOptions.of(null, JsonInclude.Include.NON_NULL);
+        PropertyOptions nonEmpty = PropertyOptions.of(PropertySlice.of(0, 2), JsonInclude.Include.NON_EMPTY);
+
+        Assert.assertEquals(JsonInclude.Include.NON_NULL, PropertyOptions.union(nonNull, nonEmpty).getInclusion());
+        Assert.assertNull(PropertyOptions.union(nonNull, nonEmpty).getSlice());
+        Assert.assertEquals(JsonInclude.Include.NON_EMPTY, PropertyOptions.intersect(nonNull, nonEmpty).getInclusion());
+        Assert.assertEquals(PropertySlice.of(0, 2), PropertyOptions.intersect(nonNull, nonEmpty).getSlice());
+        Assert.assertSame(PropertyOptions.NONE, PropertyOptions.union(nonNull, PropertyOptions.NONE));
+    }
+
+    @Test
+    public void includesTest() {
+        PropertyOptions nonEmpty = PropertyOptions.of(null, JsonInclude.Include.NON_EMPTY);
+        PropertyOptions nonDefault = PropertyOptions.of(null, JsonInclude.Include.NON_DEFAULT);
+
+        Assert.assertFalse(nonEmpty.includes(""));
+        Assert.assertFalse(nonEmpty.includes(Collections.emptyList()));
+        Assert.assertFalse(nonEmpty.includes(new int[0]));
+        Assert.assertTrue(nonEmpty.includes(0));
+        Assert.assertFalse(nonDefault.includes(0));
+        Assert.assertFalse(nonDefault.includes(0.0d));
+        Assert.assertFalse(nonDefault.includes(false));
+        Assert.assertTrue(nonDefault.includes(1L));
+        Assert.assertTrue(PropertyOptions.NONE.includes(null));
+        // enums have no default
+        Assert.assertTrue(nonDefault.includes(JsonInclude.Include.ALWAYS));
+    }
+
+    @Test
+    public void serializeInclusionTest() throws JsonProcessingException {
+        String[] properties = {"id", "billing?NON_NULL.city?NON_NULL", "billing.zip?NON_EMPTY", "shipping?NON_NULL.city"};
+
+        Assert.assertEquals(ORDER, write(order, provider(NestedBeanPropertyFilter.filterOutAllExcept(Order.class, properties))));
+        Assert.assertEquals(ORDER, write(order, provider(NestedBeanPropertyFilter.filterOutAllExceptByPath(Order.class, properties))));
+        Assert.assertEquals(ORDER, write(order, provider(NestedBeanPropertyFilter.filterOutAllExceptFields(Order.class,
+                "id,billing?NON_NULL(city?NON_NULL,zip?NON_EMPTY),shipping?NON_NULL(city)"))));
+        Assert.assertEquals(ORDER, new ObjectMapper().registerModule(new NestedPropertyFilterModule(Order.class, properties))
+                .writeValueAsString(order));
+        // without the rules nulls are written
+        Assert.assertEquals("{\"id\":\"1\",\"shipping\":null}", write(order, provider(
+                NestedBeanPropertyFilter.filterOutAllExceptByPath(Order.class, "id", "shipping.city"))));
+    }
+
+    @Test
+    public void serializeInclusionBelowAstrixTest() throws JsonProcessingException {
+        // the * does not swallow the rule, the other properties keep their nulls
+        Assert.assertEquals(Arrays.asList("*", "shipping?NON_NULL.*"), FilterSpec.of("*", "shipping?NON_NULL").getPaths());
+        String json = "{\"id\":\"1\",\"billing\":{\"street\":null,\"city\":\"Berlin\",\"zip\":null}}";
+
+        Assert.assertEquals(json, write(order, provider(NestedBeanPropertyFilter.filterOutAllExcept(Order.class, "*", "shipping?NON_NULL"))));
+        Assert.assertEquals(json, write(order, provider(NestedBeanPropertyFilter.filterOutAllExceptByPath(Order.class, "*", "shipping?NON_NULL"))));
+        Assert.assertEquals(json, write(order, provider(NestedBeanPropertyFilter.filterOutAllExceptFields(Order.class, "*,shipping?NON_NULL"))));
+        Assert.assertEquals(json, new ObjectMapper().registerModule(new NestedPropertyFilterModule(Order.class, "*", "shipping?NON_NULL"))
+                .writeValueAsString(order));
+    }
+
+    @Test
+    public void serializeSliceWithInclusionTest() throws JsonProcessingException {
+        String[] properties = {"name?NON_EMPTY", "items[0:2]?NON_EMPTY.a?NON_NULL", "items[0:2]?NON_EMPTY.b?NON_DEFAULT", "tags?NON_EMPTY"};
+
+        Assert.assertEquals(CATALOG, write(catalog, provider(NestedBeanPropertyFilter.filterOutAllExceptByPath(Catalog.class, properties))));
+        Assert.assertEquals(CATALOG, new ObjectMapper().registerModule(new NestedPropertyFilterModule(Catalog.class, properties))
+                .writeValueAsString(catalog));
+    }
+
+    @Test
+    public void serializeReadsValueOnceTest() throws JsonProcessingException {
+        String[] properties = {"name?NON_NULL", "tags[:1]?NON_EMPTY"};
+        String json = "{\"tags\":[\"x\"]}";
+
+        Counted counted = new Counted(null, Arrays.asList("x", "y"));
+        Assert.assertEquals(json, write(counted, provider(NestedBeanPropertyFilter.filterOutAllExcept(Counted.class, properties))));
+        Assert.assertEquals(2, counted.getReads());
+
+        counted = new Counted(null, Arrays.asList("x", "y"));
+        Assert.assertEquals(json, write(counted, provider(NestedBeanPropertyFilter.filterOutAllExceptByPath(Counted.class, properties))));
+        Assert.assertEquals(2, counted.getReads());
+
+        counted = new Counted(null, Arrays.asList("x", "y"));
+        Assert.assertEquals(json, new ObjectMapper().registerModule(new NestedPropertyFilterModule(Counted.class, properties))
+                .writeValueAsString(counted));
+        Assert.assertEquals(2, counted.getReads());
+
+        // the filter keeps the wrapped writer for the next object
+        ObjectMapper objectMapper = new ObjectMapper();
+        objectMapper.setFilterProvider(provider(NestedBeanPropertyFilter.filterOutAllExcept(Counted.class, properties)));
+        objectMapper.writeValueAsString(new Counted(null, null));
+        counted = new Counted("n", Collections.<String>emptyList());
+        Assert.assertEquals("{\"name\":\"n\"}", objectMapper.writeValueAsString(counted));
+        Assert.assertEquals(2, counted.getReads());
+    }
+
+    @Test
+    public void serializeInclusionOnTopOfJsonIncludeTest() throws JsonProcessingException {
+        // title passes ?NON_NULL but is still omitted by its @JsonInclude(NON_EMPTY)
+        Memo memo = new Memo("", null);
+        String[] properties = {"title?NON_NULL", "note"};
+
+        Assert.assertEquals("{\"note\":null}", write(memo, provider(NestedBeanPropertyFilter.filterOutAllExcept(Memo.class, properties))));
+        Assert.assertEquals("{\"note\":null}", write(memo, provider(NestedBeanPropertyFilter.filterOutAllExceptByPath(Memo.class, properties))));
+        Assert.assertEquals("{\"note\":null}", new ObjectMapper().registerModule(new NestedPropertyFilterModule(Memo.class, properties))
+                .writeValueAsString(memo));
+        Assert.assertEquals("{\"title\":\"t\"}", write(new Memo("t", null), provider(
+                NestedBeanPropertyFilter.filterOutAllExceptByPath(Memo.class, "title?NON_NULL", "note?NON_NULL"))));
+    }
+
+}
@@ -0,0 +1,122 @@
+package rk.prod.jackson;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import org.junit.Assert;
+import org.junit.Test;
+import rk.prod.jackson.datatype.Catalog;
+import rk.prod.jackson.datatype.Playlist;
+import rk.prod.jackson.datatype.Pojo3;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.LinkedList;
+
+public class PropertySliceTest {
+
+    private static final String SLICED = "{\"items\":[{\"a\":\"1\"},{\"a\":\"2\"}],\"tags\":[\"x\",\"y\"]}";
+
+    Catalog catalog = new Catalog("catalog",
+            Arrays.asList(new Pojo3("0", 0), new Pojo3("1", 1), new Pojo3("2", 2), new Pojo3("3", 3)),
+            new String[]{"x", "y", "z"});
+
+    private static String write(Object value, SimpleFilterProvider filterProvider) throws JsonProcessingException {
+        ObjectMapper objectMapper = new ObjectMapper();
+        objectMapper.setFilterProvider(filterProvider);
+        return objectMapper.writeValueAsString(value);
+    }
+
+    @Test
+    public void canonicalTest() {
+        Assert.assertSame(FilterSpec.of("items[0:2].a"), FilterSpec.of(" items[ :2] . a"));
+        Assert.assertEquals(Arrays.asList("items[5:]"), FilterSpec.of("items[5:]").getPaths());
+        Assert.assertEquals(PropertySlice.of(0, 2), FilterSpec.of("items[:2].a", "items[1:2].b").options().get("items").getSlice());
+        // a plain path wins over the slice
+        Assert.assertTrue(FilterSpec.of("items[:2].a", "items.b").options().isEmpty());
+        for (String invalid : new String[]{"items[2:1]", "items[a:b]", "items[3]", "[0:1]"}) {
+            try {
+                FilterSpec.of(invalid);
+                Assert.fail(invalid);
+            } catch (IllegalArgumentException e) {
+                // expected
+            }
+        }
+    }
+
+    @Test
+    public void serializeSliceTest() throws JsonProcessingException {
+        String[] properties = {"items[1:3].a", "tags[:2]"};
+
+        Assert.assertEquals(SLICED, write(catalog, new NestedPropertyFilterProvider().addFilter("nestedPropertyFilter",
+                NestedBeanPropertyFilter.filterOutAllExcept(Catalog.class, properties))));
+        Assert.assertEquals(SLICED, write(catalog, new NestedPropertyFilterProvider().addFilter("nestedPropertyFilter",
+                NestedBeanPropertyFilter.filterOutAllExceptByPath(Catalog.class, properties))));
+        Assert.assertEquals(SLICED, write(catalog, new NestedPropertyFilterProvider().addFilter("nestedPropertyFilter",
+                NestedBeanPropertyFilter.filterOutAllExceptFields(Catalog.class, "items[1:3](a),tags[:2]"))));
+        Assert.assertEquals(SLICED, new ObjectMapper().registerModule(new NestedPropertyFilterModule(Catalog.class, properties))
+                .writeValueAsString(catalog));
+    }
+
+    @Test
+    public void serializeSliceBelowAstrixTest() throws JsonProcessingException {
+        // the * does not swallow the slice, everything below the sliced property is covered by it
+        Assert.assertEquals(Arrays.asList("*", "items[0:1].*"), FilterSpec.of("*", "items[:1]").getPaths());
+        Assert.assertSame(FilterSpec.of("*", "items[:1]"), FilterSpec.of("*", "items[:1].a"));
+        Assert.assertSame(FilterSpec.of("*"), FilterSpec.of("*", "items.a"));
+        String sliced = "{\"name\":\"catalog\",\"items\":[{\"a\":\"0\",\"b\":0}],\"tags\":[\"x\",\"y\",\"z\"]}";
+
+        Assert.assertEquals(sliced, write(catalog, new NestedPropertyFilterProvider().addFilter("nestedPropertyFilter",
+                NestedBeanPropertyFilter.filterOutAllExcept(Catalog.class, "*", "items[:1]"))));
+        Assert.assertEquals(sliced, write(catalog, new NestedPropertyFilterProvider().addFilter("nestedPropertyFilter",
+                NestedBeanPropertyFilter.filterOutAllExceptByPath(Catalog.class, "*", "items[:1]"))));
+        Assert.assertEquals(sliced, write(catalog, new NestedPropertyFilterProvider().addFilter("nestedPropertyFilter",
+                NestedBeanPropertyFilter.filterOutAllExceptFields(Catalog.class, "*,items[:1]"))));
+        Assert.assertEquals(sliced, new ObjectMapper().registerModule(new NestedPropertyFilterModule(Catalog.class, "*", "items[:1]"))
+                .writeValueAsString(catalog));
+    }
+
+    @Test
+    public void serializeSliceOfIterableTest() throws JsonProcessingException {
+        Catalog linked = new Catalog("linked", new LinkedList<>(catalog.getItems()), new String[0]);
+
+        Assert.assertEquals("{\"items\":[{\"b\":3}],\"tags\":[]}", write(linked, new NestedPropertyFilterProvider()
+                .addFilter("nestedPropertyFilter", NestedBeanPropertyFilter.filterOutAllExcept(Catalog.class, "items[3:].b", "tags[0:5]"))));
+    }
+
+    @Test
+    public void serializeSliceWithContentSerializerTest() throws JsonProcessingException {
+        Playlist playlist = new Playlist(Arrays.asList(5L, null, 3L),
+                Arrays.asList(new Pojo3("0", 0), new Pojo3("1", 1), new Pojo3("2", 2)));
+        String[] properties = {"ratings[0:2]", "items[1:2].a"};
+        // contentUsing and the element type id are kept, a null element stays null
+        String sliced = "{\"ratings\":[\"5\",null],\"items\":[{\"@type\":\"Pojo3\",\"a\":\"1\"}]}";
+
+        Assert.assertEquals(sliced, write(playlist, new NestedPropertyFilterProvider().addFilter("nestedPropertyFilter",
+                NestedBeanPropertyFilter.filterOutAllExcept(Playlist.class, properties))));
+        Assert.assertEquals(sliced, new ObjectMapper().registerModule(new NestedPropertyFilterModule(Playlist.class, properties))
+                .writeValueAsString(playlist));
+        // the same elements as the unsliced collection serializer writes
+        Assert.assertEquals("{\"ratings\":[\"5\",null,\"3\"],\"items\":[{\"@type\":\"Pojo3\",\"a\":\"0\"},"
+                        + "{\"@type\":\"Pojo3\",\"a\":\"1\"},{\"@type\":\"Pojo3\",\"a\":\"2\"}]}",
+                write(playlist, new NestedPropertyFilterProvider().addFilter("nestedPropertyFilter",
+                        NestedBeanPropertyFilter.filterOutAllExcept(Playlist.class, "ratings", "items.a"))));
+    }
+
+    @Test
+    public void filterStreamSliceTest() throws IOException {
+        String json = write(catalog, new NestedPropertyFilterProvider().addFilter("nestedPropertyFilter",
+                NestedBeanPropertyFilter.filterOutAllExcept(Catalog.class, "*")));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        NestedPropertyTokenFilter.filter(new JsonFactory(), new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)),
+                out, FilterSpec.of("items[1:3].a", "tags[:2]"));
+
+        Assert.assertEquals(SLICED, new String(out.toByteArray(), StandardCharsets.UTF_8));
+    }
+
+}
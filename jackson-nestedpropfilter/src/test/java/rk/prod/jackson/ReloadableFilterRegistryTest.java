@@ -0,0 +1,154 @@
+package rk.prod.jackson;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.Assert;
+import org.junit.Test;
+import rk.prod.jackson.datatype.Address;
+import rk.prod.jackson.datatype.Order;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+public class ReloadableFilterRegistryTest {
+
+    private static final String ORDER = Order.class.getName();
+
+    private static final String ADDRESS = Address.class.getName();
+
+    private Order order = new Order("1", new Address("s", "c", "z"), new Address("s2", "c2", "z2"));
+
+    private ReloadableFilterRegistry registry = new ReloadableFilterRegistry(new ObjectMapper());
+
+    private static Map<String, String> specs(String... nameAndSpecs) {
+        Map<String, String> specs = new HashMap<>();
+        for (int i = 0; i < nameAndSpecs.length; i += 2) {
+            specs.put(nameAndSpecs[i], nameAndSpecs[i + 1]);
+        }
+        return specs;
+    }
+
+    @Test
+    public void updateTest() throws JsonProcessingException {
+        Assert.assertTrue(registry.update(specs("summary", ORDER + ":id", "city", ADDRESS + ":city")));
+        Assert.assertFalse(registry.update(specs("summary", ORDER + ":id", "city", ADDRESS + ":city ")));
+        Assert.assertEquals(1, registry.getVersion());
+        Assert.assertEquals("{\"id\":\"1\"}", registry.writer("summary").writeValueAsString(order));
+        Assert.assertEquals("{\"city\":\"c\"}", registry.writer("city").writeValueAsString(order.getBilling()));
+
+        Object city = registry.writer("city");
+        registry.update(specs("summary", ORDER + ":id,shipping(zip)", "city", ADDRESS + ":city"));
+        Assert.assertEquals(2, registry.getVersion());
+        Assert.assertEquals("{\"id\":\"1\",\"shipping\":{\"zip\":\"z2\"}}",
+                registry.writer("summary").writeValueAsString(order));
+        Assert.assertSame(city, registry.writer("city"));
+
+        registry.update(specs("city", ADDRESS + ":city"));
+        Assert.assertFalse(registry.contains("summary"));
+    }
+
+    @Test
+    public void invalidUpdateTest() throws JsonProcessingException {
+        registry.update(specs("summary", ORDER + ":id"));
+        List<Map<String, String>> invalid = new ArrayList<>();
+        invalid.add(specs("summary", ORDER + ":id,("));
+        invalid.add(specs("summary", "NoSuchClass:id"));
+        invalid.add(specs("summary", ORDER));
+        invalid.add(specs("summary", ORDER + ":status", "city", ADDRESS + ":city("));
+        for (Map<String, String> specs : invalid) {
+            try {
+                registry.update(specs);
+                Assert.fail(specs.toString());
+            } catch (IllegalArgumentException e) {
+                System.out.println(e.getMessage());
+            }
+        }
+        Assert.assertEquals(1, registry.getVersion());
+        Assert.assertEquals("{\"id\":\"1\"}", registry.writer("summary").writeValueAsString(order));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void unknownNameTest() {
+        registry.writer("unknown");
+    }
+
+    // writers never see a filter other than the old or the new one while specs are swapped
+    @Test
+    public void concurrentSwapTest() throws Exception {
+        final Map<String, String> first = specs("summary", ORDER + ":id", "city", ADDRESS + ":city");
+        final Map<String, String> second = specs("summary", ORDER + ":id,billing(zip)", "city", ADDRESS + ":zip");
+        registry.update(first);
+        final AtomicBoolean done = new AtomicBoolean();
+        final AtomicReference<String> unexpected = new AtomicReference<>();
+        Thread reader = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    while (!done.get()) {
+                        String json = registry.writer("summary").writeValueAsString(order);
+                        if (!json.equals("{\"id\":\"1\"}") && !json.equals("{\"id\":\"1\",\"billing\":{\"zip\":\"z\"}}")) {
+                            unexpected.set(json);
+                        }
+                    }
+                } catch (JsonProcessingException e) {
+                    unexpected.set(e.toString());
+                }
+            }
+        });
+        reader.start();
+        for (int i = 0; i < 2000; i++) {
+            registry.update(i % 2 == 0 ? second : first);
+        }
+        done.set(true);
+        reader.join();
+        Assert.assertNull(unexpected.get());
+        Assert.assertEquals(2001, registry.getVersion());
+    }
+
+    @Test
+    public void watchTest() throws Exception {
+        Path file = Files.createTempFile("filters", ".properties");
+        try {
+            Files.write(file, ("summary = " + ORDER + ":id\n").getBytes(StandardCharsets.UTF_8));
+            Closeable watch = registry.watch(file);
+            try {
+                Assert.assertEquals("{\"id\":\"1\"}", registry.writer("summary").writeValueAsString(order));
+
+                Files.write(file, ("summary = " + ORDER + ":id,billing(zip)\n").getBytes(StandardCharsets.UTF_8));
+                waitForVersion(2);
+                Assert.assertEquals("{\"id\":\"1\",\"billing\":{\"zip\":\"z\"}}",
+                        registry.writer("summary").writeValueAsString(order));
+
+                Files.write(file, ("summary = " + ORDER + ":id,(\n").getBytes(StandardCharsets.UTF_8));
+                long deadline = System.currentTimeMillis() + 30000;
+                while (registry.getLastFailure() == null && System.currentTimeMillis() < deadline) {
+                    Thread.sleep(10);
+                }
+                Assert.assertNotNull(registry.getLastFailure());
+                Assert.assertEquals(2, registry.getVersion());
+            } finally {
+                watch.close();
+            }
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    private void waitForVersion(long version) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 30000;
+        while (registry.getVersion() < version && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        Assert.assertTrue(registry.getVersion() >= version);
+    }
+
+}
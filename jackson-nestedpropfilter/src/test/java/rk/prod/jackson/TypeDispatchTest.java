@@ -0,0 +1,60 @@
+package rk.prod.jackson;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import org.junit.Assert;
+import org.junit.Test;
+import rk.prod.jackson.datatype.Address;
+import rk.prod.jackson.datatype.Labeled;
+import rk.prod.jackson.datatype.Order;
+import rk.prod.jackson.datatype.Tag;
+
+import java.io.Serializable;
+import java.util.Collections;
+
+public class TypeDispatchTest {
+
+    // what a Hibernate proxy of Address looks like to the filter
+    static class AddressProxy extends Address implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        AddressProxy(String street, String city, String zip) {
+            super(street, city, zip);
+        }
+    }
+
+    private static String write(Object value, SimpleBeanPropertyFilter filter) throws JsonProcessingException {
+        ObjectMapper objectMapper = new ObjectMapper();
+        objectMapper.setFilterProvider(new NestedPropertyFilterProvider().addFilter("nestedPropertyFilter", filter));
+        return objectMapper.writeValueAsString(value);
+    }
+
+    @Test
+    public void resolveTest() {
+        TypeDispatch<String> dispatch = new TypeDispatch<>(Collections.<Class<?>, String>singletonMap(Address.class, "address"));
+
+        Assert.assertEquals("address", dispatch.get(Address.class));
+        Assert.assertEquals("address", dispatch.get(AddressProxy.class));
+        Assert.assertNull(dispatch.get(Order.class));
+        Assert.assertEquals("serializable", new TypeDispatch<>(Collections.<Class<?>, String>singletonMap(
+                Serializable.class, "serializable")).get(AddressProxy.class));
+    }
+
+    @Test
+    public void proxyTest() throws JsonProcessingException {
+        Order order = new Order("1", new AddressProxy("s", "c", "z"), new Address("s2", "c2", "z2"));
+
+        Assert.assertEquals("{\"id\":\"1\",\"billing\":{\"city\":\"c\"},\"shipping\":{\"city\":\"c2\"}}",
+                write(order, NestedBeanPropertyFilter.filterOutAllExcept(Order.class, "id", "billing.city", "shipping.city")));
+    }
+
+    @Test
+    public void interfaceTest() throws JsonProcessingException {
+        Labeled labeled = new Labeled("1", new Tag("urgent", "red"));
+
+        Assert.assertEquals("{\"id\":\"1\",\"label\":{\"name\":\"urgent\"}}",
+                write(labeled, NestedBeanPropertyFilter.filterOutAllExcept(Labeled.class, "id", "label.name")));
+    }
+
+}
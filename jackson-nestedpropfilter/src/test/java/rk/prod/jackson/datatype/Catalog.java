@@ -0,0 +1,30 @@
+package rk.prod.jackson.datatype;
+
+import com.fasterxml.jackson.annotation.JsonFilter;
+
+import java.util.List;
+
+@JsonFilter("nestedPropertyFilter")
+public class Catalog {
+    private String name;
+    private List<Pojo3> items;
+    private String[] tags;
+
+    public Catalog(String name, List<Pojo3> items, String[] tags) {
+        this.name = name;
+        this.items = items;
+        this.tags = tags;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public List<Pojo3> getItems() {
+        return items;
+    }
+
+    public String[] getTags() {
+        return tags;
+    }
+}
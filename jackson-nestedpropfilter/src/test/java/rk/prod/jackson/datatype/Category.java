@@ -0,0 +1,55 @@
+package rk.prod.jackson.datatype;
+
+import com.fasterxml.jackson.annotation.JsonFilter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@JsonFilter("nestedPropertyFilter")
+public class Category {
+    private String name;
+    private Integer rank;
+    private Category parent;
+    private List<Category> children = new ArrayList<>();
+
+    public Category(String name, Integer rank, Category parent) {
+        this.name = name;
+        this.rank = rank;
+        this.parent = parent;
+        if (parent != null) {
+            parent.children.add(this);
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public Integer getRank() {
+        return rank;
+    }
+
+    public void setRank(Integer rank) {
+        this.rank = rank;
+    }
+
+    public Category getParent() {
+        return parent;
+    }
+
+    public void setParent(Category parent) {
+        this.parent = parent;
+    }
+
+    public List<Category> getChildren() {
+        return children;
+    }
+
+    public void setChildren(List<Category> children) {
+        this.children = children;
+    }
+}
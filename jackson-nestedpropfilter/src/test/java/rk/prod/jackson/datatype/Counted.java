@@ -0,0 +1,34 @@
+package rk.prod.jackson.datatype;
+
+import com.fasterxml.jackson.annotation.JsonFilter;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import java.util.List;
+
+@JsonFilter("nestedPropertyFilter")
+public class Counted {
+    private String name;
+    private List<String> tags;
+    private int reads;
+
+    public Counted(String name, List<String> tags) {
+        this.name = name;
+        this.tags = tags;
+    }
+
+    public String getName() {
+        reads++;
+        return name;
+    }
+
+    public List<String> getTags() {
+        reads++;
+        return tags;
+    }
+
+    // getter calls so far
+    @JsonIgnore
+    public int getReads() {
+        return reads;
+    }
+}
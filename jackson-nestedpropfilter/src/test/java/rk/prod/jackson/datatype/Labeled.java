@@ -0,0 +1,22 @@
+package rk.prod.jackson.datatype;
+
+import com.fasterxml.jackson.annotation.JsonFilter;
+
+@JsonFilter("nestedPropertyFilter")
+public class Labeled {
+    private String id;
+    private Named label;
+
+    public Labeled(String id, Named label) {
+        this.id = id;
+        this.label = label;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public Named getLabel() {
+        return label;
+    }
+}
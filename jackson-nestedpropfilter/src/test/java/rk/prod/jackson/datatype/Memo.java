@@ -0,0 +1,24 @@
+package rk.prod.jackson.datatype;
+
+import com.fasterxml.jackson.annotation.JsonFilter;
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+@JsonFilter("nestedPropertyFilter")
+public class Memo {
+    @JsonInclude(JsonInclude.Include.NON_EMPTY)
+    private String title;
+    private String note;
+
+    public Memo(String title, String note) {
+        this.title = title;
+        this.note = note;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public String getNote() {
+        return note;
+    }
+}
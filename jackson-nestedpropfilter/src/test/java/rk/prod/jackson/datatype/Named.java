@@ -0,0 +1,10 @@
+package rk.prod.jackson.datatype;
+
+import com.fasterxml.jackson.annotation.JsonFilter;
+
+@JsonFilter("nestedPropertyFilter")
+public interface Named {
+
+    String getName();
+
+}
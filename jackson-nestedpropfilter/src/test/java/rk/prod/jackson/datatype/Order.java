@@ -0,0 +1,40 @@
+package rk.prod.jackson.datatype;
+
+import com.fasterxml.jackson.annotation.JsonFilter;
+
+@JsonFilter("nestedPropertyFilter")
+public class Order {
+    private String id;
+    private Address billing;
+    private Address shipping;
+
+    public Order(String id, Address billing, Address shipping) {
+        this.id = id;
+        this.billing = billing;
+        this.shipping = shipping;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public Address getBilling() {
+        return billing;
+    }
+
+    public void setBilling(Address billing) {
+        this.billing = billing;
+    }
+
+    public Address getShipping() {
+        return shipping;
+    }
+
+    public void setShipping(Address shipping) {
+        this.shipping = shipping;
+    }
+}
@@ -0,0 +1,29 @@
+package rk.prod.jackson.datatype;
+
+import com.fasterxml.jackson.annotation.JsonFilter;
+import com.fasterxml.jackson.annotation.JsonTypeInfo;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.ser.std.ToStringSerializer;
+
+import java.util.List;
+
+@JsonFilter("nestedPropertyFilter")
+public class Playlist {
+    private List<Long> ratings;
+    private List<Pojo3> items;
+
+    public Playlist(List<Long> ratings, List<Pojo3> items) {
+        this.ratings = ratings;
+        this.items = items;
+    }
+
+    @JsonSerialize(contentUsing = ToStringSerializer.class)
+    public List<Long> getRatings() {
+        return ratings;
+    }
+
+    @JsonTypeInfo(use = JsonTypeInfo.Id.NAME, property = "@type")
+    public List<Pojo3> getItems() {
+        return items;
+    }
+}
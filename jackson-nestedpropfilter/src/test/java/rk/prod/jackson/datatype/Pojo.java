@@ -11,6 +11,9 @@ public class Pojo {
     private Integer b;
     private Pojo2 c;
 
+    public Pojo() {
+    }
+
     public Pojo(String a, Integer b, Pojo2 c) {
         this.a = a;
         this.b = b;
@@ -11,6 +11,9 @@ public class Pojo2 {
     private Integer b;
     private Pojo3 c;
 
+    public Pojo2() {
+    }
+
     public Pojo2(String a, Integer b, Pojo3 c) {
         this.a = a;
         this.b = b;
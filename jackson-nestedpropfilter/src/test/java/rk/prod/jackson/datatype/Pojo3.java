@@ -10,6 +10,9 @@ public class Pojo3 {
     private String a;
     private Integer b;
 
+    public Pojo3() {
+    }
+
     public Pojo3(String a, Integer b) {
         this.a = a;
         this.b = b;
@@ -0,0 +1,40 @@
+package rk.prod.jackson.datatype;
+
+import com.fasterxml.jackson.annotation.JsonFilter;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.Map;
+
+@JsonFilter("nestedPropertyFilter")
+public class Renamed {
+    private String name;
+    private String secret;
+    private Map<String, Pojo3> byKey;
+    private Pojo3[] array;
+
+    public Renamed(String name, String secret, Map<String, Pojo3> byKey, Pojo3[] array) {
+        this.name = name;
+        this.secret = secret;
+        this.byKey = byKey;
+        this.array = array;
+    }
+
+    @JsonProperty("full_name")
+    public String getName() {
+        return name;
+    }
+
+    @JsonIgnore
+    public String getSecret() {
+        return secret;
+    }
+
+    public Map<String, Pojo3> getByKey() {
+        return byKey;
+    }
+
+    public Pojo3[] getArray() {
+        return array;
+    }
+}
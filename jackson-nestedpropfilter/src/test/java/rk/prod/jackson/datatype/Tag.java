@@ -0,0 +1,20 @@
+package rk.prod.jackson.datatype;
+
+public class Tag implements Named {
+    private String name;
+    private String color;
+
+    public Tag(String name, String color) {
+        this.name = name;
+        this.color = color;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    public String getColor() {
+        return color;
+    }
+}